@@ -0,0 +1,53 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pure table moves on a fixed set of mid-game 4×4 positions, without spawning.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitboardBenchmark {
+
+    private static final int positions = 4096;
+
+    @Param({"1", "2", "3", "4"})
+    int direction;
+
+    private final long boards[] = new long[positions];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(2048);
+        BitboardGame game = new BitboardGame(Game.DEFAULT_STYLE, random.split());
+        for (int k = 0; k < positions; k++) {
+            if (game.move(Game.MOVE_UP + random.nextInt(4)) == Game.GAME_OVER) {
+                game = new BitboardGame(Game.DEFAULT_STYLE, random.split());
+            }
+            boards[k] = game.getBoard();
+        }
+    }
+
+    @Benchmark
+    public long move() {
+        return BitboardGame.move(boards[next++ & (positions - 1)], direction);
+    }
+
+    @Benchmark
+    public int moveScore() {
+        return BitboardGame.moveScore(boards[next++ & (positions - 1)], direction);
+    }
+
+    @Benchmark
+    public boolean isGameOver() {
+        return BitboardGame.isGameOver(boards[next++ & (positions - 1)]);
+    }
+}
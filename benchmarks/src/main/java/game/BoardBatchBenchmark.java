@@ -0,0 +1,55 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Board-moves per second through {@link BoardBatch}, on one thread and across the common pool.
+ * Every invocation restores the same mid-game positions before moving them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBatchBenchmark {
+
+    private static final int size = 1 << 16;
+
+    private final long positions[] = new long[size];
+    private final int directions[] = new int[size];
+    private final BoardBatch batch = new BoardBatch(size);
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(2048);
+        BitboardGame game = new BitboardGame(Game.DEFAULT_STYLE, random.split());
+        for (int k = 0; k < size; k++) {
+            if (game.move(Game.MOVE_UP + random.nextInt(4)) == Game.GAME_OVER) {
+                game = new BitboardGame(Game.DEFAULT_STYLE, random.split());
+            }
+            positions[k] = game.getBoard();
+            directions[k] = Game.MOVE_UP + random.nextInt(4);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(size)
+    public long move() {
+        System.arraycopy(positions, 0, batch.boards, 0, size);
+        batch.move(directions);
+        return batch.boards[size - 1];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(size)
+    public long moveParallel() {
+        System.arraycopy(positions, 0, batch.boards, 0, size);
+        batch.move(directions, ForkJoinPool.commonPool());
+        return batch.boards[size - 1];
+    }
+}
@@ -0,0 +1,54 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves in one direction. When the board is stuck in that direction the remaining
+ * directions are tried in order, the way the simulator falls back, so every call
+ * advances the game; a finished game is replaced by a new one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveBenchmark {
+
+    @Param({"0", "1", "2"})
+    int style;
+
+    @Param({"game", "packed"})
+    String engine;
+
+    @Param({"1", "2", "3", "4"})
+    int direction;
+
+    private SplittableRandom random;
+    private Engine game;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        random = new SplittableRandom(2048);
+        game = newGame();
+    }
+
+    @Benchmark
+    public int move() {
+        int result = game.move(direction);
+        for (int d = Game.MOVE_UP; result == Game.NO_MOVEMENT && d <= Game.MOVE_RIGHT; d++) {
+            result = game.move(d);
+        }
+        if (result == Game.GAME_OVER) {
+            game = newGame();
+        }
+        return result;
+    }
+
+    private Engine newGame() {
+        return engine.equals("game") ? new Game(style, random.split()) : Engine.create(style, random.split());
+    }
+}
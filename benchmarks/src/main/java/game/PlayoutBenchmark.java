@@ -0,0 +1,40 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One complete game per operation under the uniformly random policy.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayoutBenchmark {
+
+    @Param({"0", "1", "2"})
+    int style;
+
+    @Param({"game", "packed"})
+    String engine;
+
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        random = new SplittableRandom(2048);
+    }
+
+    @Benchmark
+    public long playout() {
+        Engine game = engine.equals("game") ? new Game(style, random.split()) : Engine.create(style, random.split());
+        while (game.move(Game.MOVE_UP + random.nextInt(4)) != Game.GAME_OVER) {
+            // keep playing
+        }
+        return game.getScore();
+    }
+}
@@ -0,0 +1,49 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Game#save(String)} followed by {@link Game#Game(File)} on a mid-game position.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaveBenchmark {
+
+    @Param({"0", "1", "2"})
+    int style;
+
+    private Game game;
+    private File file;
+
+    @Setup
+    public void setUp() throws IOException {
+        SplittableRandom random = new SplittableRandom(2048);
+        game = new Game(style, random);
+        for (int k = 0; k < 100; k++) {
+            if (game.move(Game.MOVE_UP + random.nextInt(4)) == Game.GAME_OVER) {
+                break;
+            }
+        }
+        file = File.createTempFile("benchmark", "." + Main.savedGameExtension);
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public Game roundTrip() throws IOException {
+        game.save(file.getPath());
+        return new Game(file);
+    }
+}
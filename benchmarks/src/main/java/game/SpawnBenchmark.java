@@ -0,0 +1,64 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Game#generateTile()} and {@link Game#isGameOver()} in isolation.
+ * A game is replaced once it has no empty cell left, so the spawn numbers include
+ * one {@link Game} allocation per {@code rows * colomns - 2} spawns.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpawnBenchmark {
+
+    private static final int positions = 1024;
+
+    @Param({"0", "1", "2"})
+    int style;
+
+    private SplittableRandom random;
+    private Game game;
+    private int spawnsLeft;
+    private final Game finished[] = new Game[positions];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        random = new SplittableRandom(2048);
+        newGame();
+        for (int k = 0; k < positions; k++) {
+            Game played = new Game(style, random.split());
+            int result;
+            do {
+                result = played.move(Game.MOVE_UP + random.nextInt(4));
+            } while (result != Game.GAME_OVER && random.nextInt(200) != 0);
+            finished[k] = played;
+        }
+    }
+
+    @Benchmark
+    public void generateTile() {
+        if (spawnsLeft == 0) {
+            newGame();
+        }
+        game.generateTile();
+        spawnsLeft--;
+    }
+
+    @Benchmark
+    public boolean isGameOver() {
+        return finished[next++ & (positions - 1)].isGameOver();
+    }
+
+    private void newGame() {
+        game = new Game(style, random.split());
+        spawnsLeft = game.rows * game.colomns - 2;
+    }
+}
@@ -0,0 +1,349 @@
+package game;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Engine for boards of up to 4×4 storing the board as sixteen 4-bit exponents in one long.
+ * Cell (i, j) lives at bits 16 * i + 4 * j; moves go through 65536-entry row tables.
+ * Smaller boards use the top-left corner and keep the other lanes empty.
+ * Exponents are capped at 15 (32768), so two 32768 tiles are never merged.
+ */
+final class BitboardGame implements Engine {
+    static final int rows = 4;
+    static final int colomns = 4;
+    private static final int maxExponent = 15;
+    static final long rowMask = 0xFFFFL;
+    static final char[] rowLeft = new char[65536];
+    static final char[] rowRight = new char[65536];
+    static final int[] rowScore = new int[65536];
+
+    static {
+        int line[] = new int[colomns];
+        for (int row = 0; row < 65536; row++) {
+            for (int j = 0; j < colomns; j++) {
+                line[j] = (row >>> (4 * j)) & 0xF;
+            }
+            rowScore[row] = mergeLine(line);
+            rowLeft[row] = (char) packLine(line);
+            for (int j = 0; j < colomns; j++) {
+                line[colomns - 1 - j] = (row >>> (4 * j)) & 0xF;
+            }
+            mergeLine(line);
+            int right = 0;
+            for (int j = 0; j < colomns; j++) {
+                right |= line[colomns - 1 - j] << (4 * j);
+            }
+            rowRight[row] = (char) right;
+        }
+    }
+
+    private final GameMode mode;
+    private final long cells;
+    private final int unused;
+    private final RandomGenerator random;
+    private long board;
+    private long score;
+    private boolean haveWon;
+    private int lastSpawnCell;
+    private int lastSpawnValue;
+
+    BitboardGame(int gameStyle) {
+        this(gameStyle, RandomGenerator.getDefault());
+    }
+
+    BitboardGame(int gameStyle, RandomGenerator random) {
+        this(GameMode.get(gameStyle), random);
+    }
+
+    BitboardGame(GameMode mode, RandomGenerator random) {
+        this(mode, random, 2);
+    }
+
+    BitboardGame(GameMode mode, RandomGenerator random, int initialTiles) {
+        if (!fits(mode)) {
+            throw new IllegalArgumentException("Bitboard engine only supports boards up to 4x4");
+        }
+        this.mode = mode;
+        this.random = random;
+        long mask = 0L;
+        for (int i = 0; i < mode.rows; i++) {
+            for (int j = 0; j < mode.colomns; j++) {
+                mask |= 0xFL << shift(i, j);
+            }
+        }
+        cells = mask;
+        unused = rows * colomns - mode.rows * mode.colomns;
+        for (int k = 0; k < initialTiles; k++) {
+            generateTile();
+        }
+    }
+
+    BitboardGame(Game game) {
+        this(game, RandomGenerator.getDefault());
+    }
+
+    BitboardGame(Game game, RandomGenerator random) {
+        this(game.getMode(), random, 0);
+        board = pack(game);
+        score = game.getScore();
+        haveWon = game.getHaveWon();
+    }
+
+    static boolean fits(GameMode mode) {
+        return mode.rows <= rows && mode.colomns <= colomns;
+    }
+
+    static long pack(Engine game) {
+        if (game instanceof BitboardGame) {
+            return ((BitboardGame) game).board;
+        }
+        if (game.getRows() > rows || game.getColomns() > colomns) {
+            throw new IllegalArgumentException("Bitboard engine only supports boards up to 4x4");
+        }
+        long packed = 0L;
+        for (int i = 0; i < game.getRows(); i++) {
+            for (int j = 0; j < game.getColomns(); j++) {
+                int exponent = game.getTile(i, j);
+                if (exponent > maxExponent) {
+                    throw new IllegalArgumentException("Tile exponent out of range: " + exponent);
+                }
+                packed |= (long) exponent << shift(i, j);
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Same result codes and score accounting as {@link Game#move(int)}.
+     */
+    @Override
+    public int move(int direction) {
+        long moved = move(board, direction, mode.rows, mode.colomns);
+        if (moved == board) {
+            return Game.NO_MOVEMENT;
+        }
+        score += moveScore(board, direction);
+        board = moved;
+        generateTile();
+        if (emptyCount(board) == unused && isStuck(board)) {
+            return Game.GAME_OVER;
+        }
+        if (!haveWon && containsExponent(board, mode.winNum)) {
+            haveWon = true;
+            return Game.PLAYER_WON;
+        }
+        return Game.NORMAL_STEP;
+    }
+
+    static long move(long board, int direction) {
+        return move(board, direction, rows, colomns);
+    }
+
+    /**
+     * Moves a board of {@code height} × {@code width} cells. Rows slid right end at lane 3 and
+     * are shifted back to end at lane {@code width - 1}; the lanes they pass over are empty.
+     */
+    static long move(long board, int direction, int height, int width) {
+        switch (direction) {
+            case Game.MOVE_UP:
+                return transpose(moveRows(transpose(board), rowLeft));
+            case Game.MOVE_DOWN:
+                return transpose(moveRows(transpose(board), rowRight) >>> (4 * (rows - height)));
+            case Game.MOVE_LEFT:
+                return moveRows(board, rowLeft);
+            case Game.MOVE_RIGHT:
+                return moveRows(board, rowRight) >>> (4 * (colomns - width));
+            default:
+                return board;
+        }
+    }
+
+    /**
+     * Points gained by {@code move(board, direction)}. Merges along a line are the same
+     * whichever end the tiles slide to, so only the axis matters.
+     */
+    static int moveScore(long board, int direction) {
+        switch (direction) {
+            case Game.MOVE_UP:
+            case Game.MOVE_DOWN:
+                return rowsScore(transpose(board));
+            case Game.MOVE_LEFT:
+            case Game.MOVE_RIGHT:
+                return rowsScore(board);
+            default:
+                return 0;
+        }
+    }
+
+    static boolean isGameOver(long board) {
+        return emptyCount(board) == 0 && isStuck(board);
+    }
+
+    /**
+     * Whether no pair of neighbours can merge; empty lanes never merge.
+     */
+    private static boolean isStuck(long board) {
+        return moveRows(board, rowLeft) == board
+                && moveRows(transpose(board), rowLeft) == transpose(board);
+    }
+
+    static int emptyCount(long board) {
+        long x = board | (board >>> 1);
+        x |= x >>> 2;
+        return 16 - Long.bitCount(x & 0x1111111111111111L);
+    }
+
+    /**
+     * @param spawn a tile made with {@link SpawnPolicy#spawn(int, int)} for a full 4×4 board
+     * @return {@code board} with the tile on its chosen empty cell
+     */
+    static long place(long board, int spawn) {
+        int position = SpawnPolicy.position(spawn);
+        long value = SpawnPolicy.exponent(spawn);
+        for (int shift = 0; shift < 64; shift += 4) {
+            if (((board >>> shift) & 0xF) == 0 && position-- == 0) {
+                return board | value << shift;
+            }
+        }
+        return board;
+    }
+
+    static boolean containsExponent(long board, int exponent) {
+        for (int k = 0; k < 64; k += 4) {
+            if (((board >>> k) & 0xF) == exponent) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static long transpose(long x) {
+        long a1 = x & 0xF0F00F0FF0F00F0FL;
+        long a2 = x & 0x0000F0F00000F0F0L;
+        long a3 = x & 0x0F0F00000F0F0000L;
+        long a = a1 | (a2 << 12) | (a3 >>> 12);
+        long b1 = a & 0xFF00FF0000FF00FFL;
+        long b2 = a & 0x00FF00FF00000000L;
+        long b3 = a & 0x00000000FF00FF00L;
+        return b1 | (b2 >>> 24) | (b3 << 24);
+    }
+
+    static int shift(int row, int colomn) {
+        return 16 * row + 4 * colomn;
+    }
+
+    private static long moveRows(long board, char[] table) {
+        return (long) table[(int) (board & rowMask)]
+                | (long) table[(int) ((board >>> 16) & rowMask)] << 16
+                | (long) table[(int) ((board >>> 32) & rowMask)] << 32
+                | (long) table[(int) ((board >>> 48) & rowMask)] << 48;
+    }
+
+    private static int rowsScore(long board) {
+        return rowScore[(int) (board & rowMask)]
+                + rowScore[(int) ((board >>> 16) & rowMask)]
+                + rowScore[(int) ((board >>> 32) & rowMask)]
+                + rowScore[(int) ((board >>> 48) & rowMask)];
+    }
+
+    /**
+     * Slides and merges {@code line} towards index 0 the way {@link Game} moves left.
+     * Both 4×4 tile styles score 2^n for a merged tile of exponent n.
+     */
+    private static int mergeLine(int line[]) {
+        int gained = 0;
+        int k = 0;
+        for (int j = 0, l = 0; k < line.length; k++, j++) {
+            while (j < line.length && line[j] == 0) {
+                j++;
+            }
+            if (j > line.length - 1) {
+                break;
+            }
+            if (j > k) {
+                line[k] = line[j];
+            }
+            if (k > l && line[k] == line[k - 1] && line[k] < maxExponent) {
+                gained += 1 << ++line[k - 1];
+                l = k--;
+            }
+        }
+        for (; k < line.length; k++) {
+            line[k] = 0;
+        }
+        return gained;
+    }
+
+    private static int packLine(int line[]) {
+        int packed = 0;
+        for (int j = 0; j < line.length; j++) {
+            packed |= line[j] << (4 * j);
+        }
+        return packed;
+    }
+
+    private void generateTile() {
+        int spawn = mode.spawn.spawn(this, emptyCount(board) - unused, random);
+        int position = SpawnPolicy.position(spawn);
+        long value = SpawnPolicy.exponent(spawn);
+        for (int k = 0; k < 64; k += 4) {
+            if (((cells >>> k) & 0xF) != 0 && ((board >>> k) & 0xF) == 0 && position-- == 0) {
+                board |= value << k;
+                lastSpawnCell = (k / 16) * mode.colomns + (k % 16) / 4;
+                lastSpawnValue = (int) value;
+                return;
+            }
+        }
+    }
+
+    @Override
+    public long getScore() {
+        return score;
+    }
+
+    @Override
+    public int getTile(int row, int colomn) {
+        return (int) (board >>> shift(row, colomn)) & 0xF;
+    }
+
+    long getBoard() {
+        return board;
+    }
+
+    /**
+     * Replaces the board alone, for callers that reuse one engine as a view of packed boards.
+     */
+    void setBoard(long board) {
+        this.board = board;
+    }
+
+    @Override
+    public int getRows() {
+        return mode.rows;
+    }
+
+    @Override
+    public int getColomns() {
+        return mode.colomns;
+    }
+
+    @Override
+    public int getStyle() {
+        return mode.id;
+    }
+
+    @Override
+    public boolean getHaveWon() {
+        return haveWon;
+    }
+
+    @Override
+    public int getLastSpawnCell() {
+        return lastSpawnCell;
+    }
+
+    @Override
+    public int getLastSpawnValue() {
+        return lastSpawnValue;
+    }
+}
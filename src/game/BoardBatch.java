@@ -0,0 +1,117 @@
+package game;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.random.RandomGenerator;
+
+/**
+ * Many 4×4 boards held as flat arrays, one slot per board and no per-game objects, for
+ * evaluators that step thousands of boards per call. Boards use the {@link BitboardGame} layout.
+ * Results of the last call are left in {@link #scoreDelta} and {@link #flags}.
+ */
+final class BoardBatch {
+
+    static final byte moved = 1;
+    static final byte gameOver = 2;
+    private static final int leafSize = 1 << 14;
+
+    final long boards[];
+    final int scoreDelta[];
+    final byte flags[];
+    private final BitboardGame view = new BitboardGame(GameMode.get(Game.DEFAULT_STYLE), null, 0);
+
+    BoardBatch(int size) {
+        boards = new long[size];
+        scoreDelta = new int[size];
+        flags = new byte[size];
+    }
+
+    int size() {
+        return boards.length;
+    }
+
+    /**
+     * Slides board k in {@code directions[k]}, one of {@link Game#MOVE_UP} to {@link Game#MOVE_RIGHT},
+     * without spawning. Sets {@link #moved} if it changed, and {@link #gameOver} if it did not
+     * change and no other direction moves it either.
+     */
+    void move(int directions[]) {
+        move(directions, 0, boards.length);
+    }
+
+    /**
+     * Moves boards {@code from} to {@code to - 1}. Each board is read once: up and down work on the
+     * transposed board, and the same four row lookups give both the new rows and the points.
+     */
+    void move(int directions[], int from, int to) {
+        for (int k = from; k < to; k++) {
+            long board = boards[k];
+            int direction = directions[k];
+            boolean vertical = direction <= Game.MOVE_DOWN;
+            char table[] = (direction & 1) != 0 ? BitboardGame.rowLeft : BitboardGame.rowRight;
+            long lines = vertical ? BitboardGame.transpose(board) : board;
+            int row0 = (int) (lines & BitboardGame.rowMask);
+            int row1 = (int) ((lines >>> 16) & BitboardGame.rowMask);
+            int row2 = (int) ((lines >>> 32) & BitboardGame.rowMask);
+            int row3 = (int) (lines >>> 48);
+            long movedLines = table[row0] | (long) table[row1] << 16 | (long) table[row2] << 32
+                    | (long) table[row3] << 48;
+            long next = vertical ? BitboardGame.transpose(movedLines) : movedLines;
+            scoreDelta[k] = BitboardGame.rowScore[row0] + BitboardGame.rowScore[row1]
+                    + BitboardGame.rowScore[row2] + BitboardGame.rowScore[row3];
+            flags[k] = next != board ? moved : BitboardGame.isGameOver(board) ? gameOver : 0;
+            boards[k] = next;
+        }
+    }
+
+    /**
+     * {@link #move(int[])} split across {@code pool}.
+     */
+    void move(int directions[], ForkJoinPool pool) {
+        pool.invoke(new Slice(directions, 0, boards.length));
+    }
+
+    /**
+     * Spawns a tile chosen by {@code policy} on every board the last move changed; sets
+     * {@link #gameOver} where the board is then stuck. The policy sees each board through one
+     * reused {@link BitboardGame}.
+     */
+    void spawn(SpawnPolicy policy, RandomGenerator random) {
+        for (int k = 0; k < boards.length; k++) {
+            if ((flags[k] & moved) == 0) {
+                continue;
+            }
+            long board = boards[k];
+            view.setBoard(board);
+            board = BitboardGame.place(board, policy.spawn(view, BitboardGame.emptyCount(board), random));
+            boards[k] = board;
+            if (BitboardGame.isGameOver(board)) {
+                flags[k] |= gameOver;
+            }
+        }
+    }
+
+    private class Slice extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final int directions[];
+        private final int from;
+        private final int to;
+
+        Slice(int directions[], int from, int to) {
+            this.directions = directions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                move(directions, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Slice(directions, from, middle), new Slice(directions, middle, to));
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package game;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Paints the whole board itself, blitting one pre-rendered image per {@link TileStyle} entry.
+ * Images are rendered lazily and dropped whenever the cell size changes.
+ * After a move the tiles slide along the snapshot's move trace, then merged and spawned tiles
+ * pop, advanced in fixed steps by a timer; nothing is allocated per frame.
+ */
+class BoardPanel extends JComponent {
+
+    private static final long serialVersionUID = 1L;
+    private static final int borderWidthHalf = 2;
+    private static final Color borderColor = Color.lightGray;
+    private static final int preferredSide = 400;
+    private static final long frameNanos = 1_000_000_000L / 120;
+    private static final long slideNanos = 100_000_000L;
+    private static final long popNanos = 80_000_000L;
+    private static final double popGrowth = 0.15;
+    private final int rows;
+    private final int colomns;
+    private final TileStyle style[];
+    private final Font font;
+    private final BufferedImage images[];
+    private final Rectangle clip = new Rectangle();
+    private final Timer frames;
+    private BoardSnapshot shown;
+    private BoardSnapshot pending;
+    private boolean skipped;
+    private int cellWidth;
+    private int cellHeight;
+    private long animationTime;
+    private long lag;
+    private long lastTick;
+
+    BoardPanel(TileStyle style[], Font font, BoardSnapshot snapshot) {
+        this.style = style;
+        this.font = font;
+        rows = snapshot.getRows();
+        colomns = snapshot.getColomns();
+        shown = snapshot;
+        images = new BufferedImage[style.length];
+        frames = new Timer((int) (frameNanos / 1_000_000L), e -> tick());
+        frames.setCoalesce(true);
+        setOpaque(true);
+        setPreferredSize(new Dimension(preferredSide, preferredSide));
+    }
+
+    /**
+     * Shows {@code snapshot}, animated if it holds a single move. While an animation runs the
+     * newest snapshot waits for it to end; it is only animated if no other snapshot was skipped.
+     */
+    void show(BoardSnapshot snapshot) {
+        if (isAnimating()) {
+            skipped |= pending != null;
+            pending = snapshot;
+        } else if (snapshot.isAnimated()) {
+            shown = snapshot;
+            animate();
+        } else {
+            shown = snapshot;
+            repaintCells(snapshot.getChangedCells());
+        }
+    }
+
+    private void animate() {
+        animationTime = 0L;
+        lag = 0L;
+        lastTick = System.nanoTime();
+        frames.start();
+        repaint();
+    }
+
+    boolean isAnimating() {
+        return frames.isRunning();
+    }
+
+    void stopAnimation() {
+        frames.stop();
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        lag += now - lastTick;
+        lastTick = now;
+        for (; lag >= frameNanos; lag -= frameNanos) {
+            animationTime += frameNanos;
+        }
+        repaint();
+        if (animationTime >= slideNanos + popNanos) {
+            frames.stop();
+            if (pending != null) {
+                shown = pending;
+                pending = null;
+                if (shown.isAnimated() && !skipped) {
+                    animate();
+                }
+                skipped = false;
+            }
+        }
+    }
+
+    /**
+     * Schedules a repaint of {@code cells} (bit {@code row * colomns + colomn}); the repaint
+     * manager merges them into one paint of their bounding box.
+     */
+    void repaintCells(long cells) {
+        layoutCells();
+        for (; cells != 0; cells &= cells - 1) {
+            int cell = Long.numberOfTrailingZeros(cells);
+            if (cell >= rows * colomns) {
+                break;
+            }
+            repaint(cellX(cell % colomns), cellY(cell / colomns), cellWidth, cellHeight);
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        layoutCells();
+        clip.setBounds(0, 0, getWidth(), getHeight());
+        g.getClipBounds(clip);
+        g.setColor(borderColor);
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        if (cellWidth <= 2 * borderWidthHalf || cellHeight <= 2 * borderWidthHalf) {
+            return;
+        }
+        if (isAnimating() && animationTime < slideNanos) {
+            paintSlide(g);
+            return;
+        }
+        for (int i = 0; i < rows; i++) {
+            int y = cellY(i);
+            if (y >= clip.y + clip.height || y + cellHeight <= clip.y) {
+                continue;
+            }
+            for (int j = 0; j < colomns; j++) {
+                int x = cellX(j);
+                if (x >= clip.x + clip.width || x + cellWidth <= clip.x) {
+                    continue;
+                }
+                g.drawImage(image(shown.getTile(i, j)), x + borderWidthHalf, y + borderWidthHalf, null);
+            }
+        }
+        if (isAnimating()) {
+            paintPop(g);
+        }
+    }
+
+    /**
+     * Empty cells, then every traced tile eased from its start towards its end cell.
+     */
+    private void paintSlide(Graphics g) {
+        BufferedImage empty = image(0);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < colomns; j++) {
+                g.drawImage(empty, cellX(j) + borderWidthHalf, cellY(i) + borderWidthHalf, null);
+            }
+        }
+        double t = (double) animationTime / slideNanos;
+        t = 1.0 - (1.0 - t) * (1.0 - t);
+        for (int k = 0; k < shown.getTraceLength(); k++) {
+            int from = shown.getTraceFrom(k);
+            int to = shown.getTraceTo(k);
+            int fromX = cellX(from % colomns);
+            int fromY = cellY(from / colomns);
+            int x = fromX + (int) Math.round((cellX(to % colomns) - fromX) * t);
+            int y = fromY + (int) Math.round((cellY(to / colomns) - fromY) * t);
+            g.drawImage(image(shown.getTraceExponent(k)), x + borderWidthHalf, y + borderWidthHalf, null);
+        }
+    }
+
+    /**
+     * Merged tiles swell and settle while the spawned tile grows in.
+     */
+    private void paintPop(Graphics g) {
+        double u = Math.min(1.0, (double) (animationTime - slideNanos) / popNanos);
+        double swell = 1.0 + popGrowth * Math.sin(Math.PI * u);
+        for (int k = 0; k < shown.getTraceLength(); k++) {
+            if (shown.isTraceMerged(k)) {
+                paintScaled(g, shown.getTraceTo(k), swell);
+            }
+        }
+        int spawn = shown.getLastSpawnCell();
+        if (spawn < 0) {
+            return;
+        }
+        int x = cellX(spawn % colomns);
+        int y = cellY(spawn / colomns);
+        g.drawImage(image(0), x + borderWidthHalf, y + borderWidthHalf, null);
+        paintScaled(g, spawn, u);
+    }
+
+    private void paintScaled(Graphics g, int cell, double scale) {
+        int width = (int) Math.round((cellWidth - 2 * borderWidthHalf) * scale);
+        int height = (int) Math.round((cellHeight - 2 * borderWidthHalf) * scale);
+        int x = cellX(cell % colomns) + (cellWidth - width) / 2;
+        int y = cellY(cell / colomns) + (cellHeight - height) / 2;
+        g.drawImage(image(shown.getTile(cell / colomns, cell % colomns)), x, y, width, height, null);
+    }
+
+    private void layoutCells() {
+        int width = Math.max(0, (getWidth() - 2 * borderWidthHalf) / colomns);
+        int height = Math.max(0, (getHeight() - 2 * borderWidthHalf) / rows);
+        if (width != cellWidth || height != cellHeight) {
+            cellWidth = width;
+            cellHeight = height;
+            Arrays.fill(images, null);
+        }
+    }
+
+    private int cellX(int colomn) {
+        return borderWidthHalf + colomn * cellWidth;
+    }
+
+    private int cellY(int row) {
+        return borderWidthHalf + row * cellHeight;
+    }
+
+    private BufferedImage image(int exponent) {
+        BufferedImage image = images[exponent];
+        if (image == null) {
+            image = render(style[exponent]);
+            images[exponent] = image;
+        }
+        return image;
+    }
+
+    /**
+     * Renders one tile at the current cell size, scaling the mode's font with the cell.
+     */
+    private BufferedImage render(TileStyle tileStyle) {
+        int width = cellWidth - 2 * borderWidthHalf;
+        int height = cellHeight - 2 * borderWidthHalf;
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        BufferedImage image = configuration != null
+                ? configuration.createCompatibleImage(width, height)
+                : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(tileStyle.bgColor);
+        g.fillRect(0, 0, width, height);
+        if (!tileStyle.label.isEmpty()) {
+            float scale = Math.min(cellWidth * colomns, cellHeight * rows) / (float) preferredSide;
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setFont(font.deriveFont(font.getSize2D() * scale));
+            FontMetrics metrics = g.getFontMetrics();
+            if (metrics.stringWidth(tileStyle.label) > width * 9 / 10) {
+                g.setFont(g.getFont().deriveFont(g.getFont().getSize2D() * width * 9 / 10
+                        / metrics.stringWidth(tileStyle.label)));
+                metrics = g.getFontMetrics();
+            }
+            g.setColor(tileStyle.txColor);
+            g.drawString(tileStyle.label, (width - metrics.stringWidth(tileStyle.label)) / 2,
+                    (height - metrics.getHeight()) / 2 + metrics.getAscent());
+        }
+        g.dispose();
+        return image;
+    }
+}
@@ -0,0 +1,122 @@
+package game;
+
+/**
+ * Immutable copy of a {@link Game} after a move or a batch of moves, safe to hand to another thread.
+ * The tiles are packed as in {@link MoveHistory}, so a snapshot of a 4×4 board is two longs.
+ * The trace is that of the last move and is only meant to be animated when {@link #isAnimated()};
+ * snapshots without one share the same empty arrays.
+ */
+final class BoardSnapshot {
+
+    private static final int noTrace[] = new int[0];
+    private final int rows;
+    private final int colomns;
+    private final int bitsPerCell;
+    private final long tiles[];
+    private final long score;
+    private final boolean haveWon;
+    private final int result;
+    private final long changedCells;
+    private final boolean animated;
+    private final int lastSpawnCell;
+    private final int traceFrom[];
+    private final int traceTo[];
+    private final int traceExponent[];
+    private final long traceMerged;
+
+    /**
+     * @param result       result code of the last move in the batch
+     * @param changedCells cells changed by the whole batch
+     * @param animated     whether the batch was a single move
+     */
+    BoardSnapshot(Game game, int result, long changedCells, boolean animated) {
+        rows = game.rows;
+        colomns = game.colomns;
+        bitsPerCell = MoveHistory.bitsPerCell(game.getMode());
+        tiles = new long[MoveHistory.words(game.getMode())];
+        MoveHistory.pack(game, bitsPerCell, tiles, 0, tiles.length);
+        score = game.getScore();
+        haveWon = game.getHaveWon();
+        this.result = result;
+        this.changedCells = changedCells;
+        this.animated = animated;
+        lastSpawnCell = game.getLastSpawnCell();
+        int length = animated ? game.getTraceLength() : 0;
+        traceFrom = length == 0 ? noTrace : new int[length];
+        traceTo = length == 0 ? noTrace : new int[length];
+        traceExponent = length == 0 ? noTrace : new int[length];
+        long merged = 0L;
+        for (int k = 0; k < length; k++) {
+            traceFrom[k] = game.getTraceFrom(k);
+            traceTo[k] = game.getTraceTo(k);
+            traceExponent[k] = game.getTraceExponent(k);
+            if (game.isTraceMerged(k)) {
+                merged |= 1L << k;
+            }
+        }
+        traceMerged = merged;
+    }
+
+    /**
+     * Snapshot of a game nobody has moved yet.
+     */
+    BoardSnapshot(Game game) {
+        this(game, Game.NORMAL_STEP, -1L, false);
+    }
+
+    int getRows() {
+        return rows;
+    }
+
+    int getColomns() {
+        return colomns;
+    }
+
+    int getTile(int row, int colomn) {
+        return MoveHistory.unpack(tiles, 0, bitsPerCell, row * colomns + colomn);
+    }
+
+    long getScore() {
+        return score;
+    }
+
+    boolean getHaveWon() {
+        return haveWon;
+    }
+
+    int getResult() {
+        return result;
+    }
+
+    long getChangedCells() {
+        return changedCells;
+    }
+
+    boolean isAnimated() {
+        return animated;
+    }
+
+    int getLastSpawnCell() {
+        return lastSpawnCell;
+    }
+
+    int getTraceLength() {
+        return traceFrom.length;
+    }
+
+    int getTraceFrom(int k) {
+        return traceFrom[k];
+    }
+
+    int getTraceTo(int k) {
+        return traceTo[k];
+    }
+
+    int getTraceExponent(int k) {
+        return traceExponent[k];
+    }
+
+    boolean isTraceMerged(int k) {
+        return (traceMerged & 1L << k) != 0;
+    }
+}
@@ -0,0 +1,106 @@
+package game;
+
+/**
+ * The eight rotations and reflections of a square {@link BitboardGame} board, for caches that keep
+ * one entry per class of equivalent boards. Symmetry {@code s} transposes when bit 2 is set, then
+ * mirrors left-right when bit 0 is set, then mirrors top-bottom when bit 1 is set. Boards smaller
+ * than 4×4 stay in the top-left corner.
+ */
+final class BoardSymmetry {
+
+    static final int count = 8;
+
+    private BoardSymmetry() {
+    }
+
+    static long apply(long board, int symmetry) {
+        return apply(board, symmetry, BitboardGame.rows);
+    }
+
+    /**
+     * @param size side of the square board
+     */
+    static long apply(long board, int symmetry, int size) {
+        if ((symmetry & 4) != 0) {
+            board = BitboardGame.transpose(board);
+        }
+        if ((symmetry & 1) != 0) {
+            board = mirrorRows(board, size);
+        }
+        if ((symmetry & 2) != 0) {
+            board = mirrorColomns(board, size);
+        }
+        return board;
+    }
+
+    /**
+     * @return the symmetry that undoes {@code symmetry}
+     */
+    static int inverse(int symmetry) {
+        return (symmetry & 4) == 0 ? symmetry : 4 | (symmetry & 1) << 1 | (symmetry & 2) >>> 1;
+    }
+
+    /**
+     * @return the direction that moves {@code apply(board, symmetry)} as {@code direction} moves {@code board}
+     */
+    static int direction(int symmetry, int direction) {
+        if ((symmetry & 4) != 0) {
+            direction = direction <= Game.MOVE_DOWN ? direction + 2 : direction - 2;
+        }
+        if ((symmetry & 1) != 0 && direction >= Game.MOVE_LEFT) {
+            direction = Game.MOVE_LEFT + Game.MOVE_RIGHT - direction;
+        }
+        if ((symmetry & 2) != 0 && direction <= Game.MOVE_DOWN) {
+            direction = Game.MOVE_UP + Game.MOVE_DOWN - direction;
+        }
+        return direction;
+    }
+
+    static long canonical(long board) {
+        return canonical(board, BitboardGame.rows);
+    }
+
+    /**
+     * @return the smallest of the eight images of {@code board}, the same for every board in its class
+     */
+    static long canonical(long board, int size) {
+        long transposed = BitboardGame.transpose(board);
+        long rows = mirrorRows(board, size);
+        long transposedRows = mirrorRows(transposed, size);
+        long best = Math.min(board, transposed);
+        best = Math.min(best, Math.min(rows, transposedRows));
+        best = Math.min(best, Math.min(mirrorColomns(board, size), mirrorColomns(transposed, size)));
+        return Math.min(best, Math.min(mirrorColomns(rows, size), mirrorColomns(transposedRows, size)));
+    }
+
+    /**
+     * @return a symmetry taking {@code board} to {@link #canonical(long, int)}
+     */
+    static int canonicalSymmetry(long board, int size) {
+        long best = canonical(board, size);
+        for (int symmetry = 0; symmetry < count; symmetry++) {
+            if (apply(board, symmetry, size) == best) {
+                return symmetry;
+            }
+        }
+        throw new AssertionError();
+    }
+
+    /**
+     * Reverses every row: swaps the nibbles of each byte, then the bytes of each row.
+     */
+    private static long mirrorRows(long board, int size) {
+        long x = (board & 0x0F0F0F0F0F0F0F0FL) << 4 | (board >>> 4) & 0x0F0F0F0F0F0F0F0FL;
+        x = (x & 0x00FF00FF00FF00FFL) << 8 | (x >>> 8) & 0x00FF00FF00FF00FFL;
+        return x >>> (4 * (BitboardGame.colomns - size));
+    }
+
+    /**
+     * Reverses every colomn: swaps the halves of the board, then the rows of each half.
+     */
+    private static long mirrorColomns(long board, int size) {
+        long x = board << 32 | board >>> 32;
+        x = (x & 0x0000FFFF0000FFFFL) << 16 | (x >>> 16) & 0x0000FFFF0000FFFFL;
+        return x >>> (16 * (BitboardGame.rows - size));
+    }
+}
@@ -0,0 +1,52 @@
+package game;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Game rules as seen by headless drivers; implemented by {@link Game} and the packed engines.
+ */
+interface Engine {
+
+    static Engine create(int gameStyle, RandomGenerator random) {
+        return create(GameMode.get(gameStyle), random);
+    }
+
+    /**
+     * @return the packed engine specialized for the mode's board size, or a {@link Game} if none fits
+     */
+    static Engine create(GameMode mode, RandomGenerator random) {
+        if (BitboardGame.fits(mode)) {
+            return new BitboardGame(mode, random);
+        }
+        if (mode.rows == FiveBoardGame.rows && mode.colomns == FiveBoardGame.colomns
+                && mode.maxExponent() <= FiveBoardGame.maxExponent) {
+            return new FiveBoardGame(mode, random);
+        }
+        return new Game(mode, random, 2);
+    }
+
+    int move(int direction);
+
+    long getScore();
+
+    int getTile(int row, int colomn);
+
+    int getRows();
+
+    int getColomns();
+
+    int getStyle();
+
+    boolean getHaveWon();
+
+    /**
+     * @return {@code row * colomns + colomn} of the tile spawned by the last successful move,
+     * or -1 if the board was restored since
+     */
+    int getLastSpawnCell();
+
+    /**
+     * @return exponent of the tile spawned by the last successful move
+     */
+    int getLastSpawnValue();
+}
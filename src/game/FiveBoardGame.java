@@ -0,0 +1,349 @@
+package game;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * 5×5 engine storing the board as twenty-five 5-bit exponents across two longs.
+ * Row i occupies bits 25 * i to 25 * i + 24 of the 128-bit pair (low, high).
+ * Rows whose tiles are all below 65536 merge through a 20-bit index into
+ * precomputed tables; rows holding larger tiles are merged lane by lane.
+ */
+final class FiveBoardGame implements Engine {
+    static final int rows = 5;
+    static final int colomns = 5;
+    /**
+     * Largest exponent a 5-bit cell holds; two such tiles do not merge.
+     */
+    static final int maxExponent = 31;
+    private static final int rowMask = (1 << 25) - 1;
+    private static final int laneLow = 0x108421;
+    private static final int laneHigh = laneLow << 4;
+    private static final int[] rowLeft = new int[1 << 20];
+    private static final int[] rowRight = new int[1 << 20];
+    private static final int[] rowScore = new int[1 << 20];
+
+    static {
+        int line[] = new int[colomns];
+        for (int index = 0; index < rowLeft.length; index++) {
+            for (int j = 0; j < colomns - 1; j++) {
+                line[j] = (index >>> (4 * j)) & 0xF;
+            }
+            line[colomns - 1] = index >>> 16;
+            rowScore[index] = (int) mergeLine(line);
+            rowLeft[index] = packLine(line, false);
+            for (int j = 0; j < colomns - 1; j++) {
+                line[colomns - 1 - j] = (index >>> (4 * j)) & 0xF;
+            }
+            line[0] = index >>> 16;
+            mergeLine(line);
+            rowRight[index] = packLine(line, true);
+        }
+    }
+
+    private final GameMode mode;
+    private final int lines[] = new int[rows];
+    private final int transposed[] = new int[colomns];
+    private final int cells[] = new int[colomns];
+    private final RandomGenerator random;
+    private long low;
+    private long high;
+    private long score;
+    private boolean haveWon;
+    private int lastSpawnCell;
+    private int lastSpawnValue;
+
+    FiveBoardGame() {
+        this(RandomGenerator.getDefault());
+    }
+
+    FiveBoardGame(RandomGenerator random) {
+        this(GameMode.get(Game.FIVE_FIVE), random);
+    }
+
+    FiveBoardGame(GameMode mode, RandomGenerator random) {
+        if (mode.rows != rows || mode.colomns != colomns) {
+            throw new IllegalArgumentException("Five board engine only supports 5x5 modes");
+        }
+        if (mode.maxExponent() > maxExponent) {
+            throw new IllegalArgumentException("Five board engine only supports tiles up to 2^" + maxExponent);
+        }
+        this.mode = mode;
+        this.random = random;
+        generateTile();
+        generateTile();
+    }
+
+    FiveBoardGame(Game game) {
+        this(game, RandomGenerator.getDefault());
+    }
+
+    FiveBoardGame(Game game, RandomGenerator random) {
+        if (game.rows != rows || game.colomns != colomns) {
+            throw new IllegalArgumentException("Five board engine only supports 5x5 modes");
+        }
+        mode = game.getMode();
+        for (int i = 0; i < rows; i++) {
+            int line = 0;
+            for (int j = 0; j < colomns; j++) {
+                int exponent = game.getTile(i, j);
+                if (exponent > maxExponent) {
+                    throw new IllegalArgumentException("Tile exponent out of range: " + exponent);
+                }
+                line |= exponent << (5 * j);
+            }
+            lines[i] = line;
+        }
+        this.random = random;
+        packRows(lines);
+        score = game.getScore();
+        haveWon = game.getHaveWon();
+    }
+
+    /**
+     * Same result codes and score accounting as {@link Game#move(int)}.
+     */
+    @Override
+    public int move(int direction) {
+        boolean isMoved = false;
+        switch (direction) {
+            case Game.MOVE_UP:
+                isMoved = moveVertical(false);
+                break;
+            case Game.MOVE_DOWN:
+                isMoved = moveVertical(true);
+                break;
+            case Game.MOVE_LEFT:
+                isMoved = moveHorizontal(false);
+                break;
+            case Game.MOVE_RIGHT:
+                isMoved = moveHorizontal(true);
+        }
+        if (!isMoved) {
+            return Game.NO_MOVEMENT;
+        }
+        generateTile();
+        if (isGameOver()) {
+            return Game.GAME_OVER;
+        }
+        if (!haveWon && containsExponent(mode.winNum)) {
+            haveWon = true;
+            return Game.PLAYER_WON;
+        }
+        return Game.NORMAL_STEP;
+    }
+
+    private boolean moveHorizontal(boolean towardsEnd) {
+        unpackRows(lines);
+        boolean isMoved = false;
+        for (int i = 0; i < rows; i++) {
+            int moved = slide(lines[i], towardsEnd);
+            if (moved != lines[i]) {
+                lines[i] = moved;
+                isMoved = true;
+            }
+        }
+        if (isMoved) {
+            packRows(lines);
+        }
+        return isMoved;
+    }
+
+    private boolean moveVertical(boolean towardsEnd) {
+        unpackRows(lines);
+        transpose(lines, transposed);
+        boolean isMoved = false;
+        for (int j = 0; j < colomns; j++) {
+            int moved = slide(transposed[j], towardsEnd);
+            if (moved != transposed[j]) {
+                transposed[j] = moved;
+                isMoved = true;
+            }
+        }
+        if (isMoved) {
+            transpose(transposed, lines);
+            packRows(lines);
+        }
+        return isMoved;
+    }
+
+    private int slide(int line, boolean towardsEnd) {
+        if ((line & laneHigh) == 0) {
+            int index = (line & 0xF) | ((line >>> 1) & 0xF0) | ((line >>> 2) & 0xF00)
+                    | ((line >>> 3) & 0xF000) | ((line >>> 4) & 0xF0000);
+            score += rowScore[index];
+            return towardsEnd ? rowRight[index] : rowLeft[index];
+        }
+        for (int j = 0; j < colomns; j++) {
+            cells[towardsEnd ? colomns - 1 - j : j] = (line >>> (5 * j)) & 0x1F;
+        }
+        score += mergeLine(cells);
+        return packLine(cells, towardsEnd);
+    }
+
+    private boolean isGameOver() {
+        unpackRows(lines);
+        for (int i = 0; i < rows; i++) {
+            if (zeroLanes(lines[i]) != 0 || (zeroLanes(lines[i] ^ (lines[i] >>> 5)) & (laneLow >>> 5)) != 0) {
+                return false;
+            }
+        }
+        for (int i = 0; i < rows - 1; i++) {
+            if (zeroLanes(lines[i] ^ lines[i + 1]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean containsExponent(int exponent) {
+        unpackRows(lines);
+        for (int i = 0; i < rows; i++) {
+            if (zeroLanes(lines[i] ^ (exponent * laneLow)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void generateTile() {
+        unpackRows(lines);
+        int n = 0;
+        for (int i = 0; i < rows; i++) {
+            n += Integer.bitCount(zeroLanes(lines[i]));
+        }
+        int spawn = mode.spawn.spawn(this, n, random);
+        int position = SpawnPolicy.position(spawn);
+        int value = SpawnPolicy.exponent(spawn);
+        for (int i = 0; i < rows; i++) {
+            int empty = zeroLanes(lines[i]);
+            int count = Integer.bitCount(empty);
+            if (position < count) {
+                for (; position > 0; position--) {
+                    empty &= empty - 1;
+                }
+                lines[i] |= value << Integer.numberOfTrailingZeros(empty);
+                packRows(lines);
+                lastSpawnCell = i * colomns + Integer.numberOfTrailingZeros(empty) / 5;
+                lastSpawnValue = value;
+                return;
+            }
+            position -= count;
+        }
+    }
+
+    /**
+     * Lowest bit of every lane of {@code line} that holds zero.
+     */
+    private static int zeroLanes(int line) {
+        int x = line | (line >>> 1) | (line >>> 2) | (line >>> 3) | (line >>> 4);
+        return ~x & laneLow;
+    }
+
+    private static void transpose(int from[], int to[]) {
+        for (int j = 0; j < colomns; j++) {
+            int line = 0;
+            for (int i = 0; i < rows; i++) {
+                line |= ((from[i] >>> (5 * j)) & 0x1F) << (5 * i);
+            }
+            to[j] = line;
+        }
+    }
+
+    /**
+     * Slides and merges {@code line} towards index 0 the way {@link Game} moves left.
+     * The 5×5 tile style scores 2^n for a merged tile of exponent n.
+     */
+    private static long mergeLine(int line[]) {
+        long gained = 0;
+        int k = 0;
+        for (int j = 0, l = 0; k < line.length; k++, j++) {
+            while (j < line.length && line[j] == 0) {
+                j++;
+            }
+            if (j > line.length - 1) {
+                break;
+            }
+            if (j > k) {
+                line[k] = line[j];
+            }
+            if (k > l && line[k] == line[k - 1] && line[k] < maxExponent) {
+                gained += 1L << ++line[k - 1];
+                l = k--;
+            }
+        }
+        for (; k < line.length; k++) {
+            line[k] = 0;
+        }
+        return gained;
+    }
+
+    private static int packLine(int line[], boolean reversed) {
+        int packed = 0;
+        for (int j = 0; j < line.length; j++) {
+            packed |= line[reversed ? line.length - 1 - j : j] << (5 * j);
+        }
+        return packed;
+    }
+
+    private void unpackRows(int to[]) {
+        to[0] = (int) low & rowMask;
+        to[1] = (int) (low >>> 25) & rowMask;
+        to[2] = (int) ((low >>> 50) | (high << 14)) & rowMask;
+        to[3] = (int) (high >>> 11) & rowMask;
+        to[4] = (int) (high >>> 36) & rowMask;
+    }
+
+    private void packRows(int from[]) {
+        low = from[0] | (long) from[1] << 25 | (long) from[2] << 50;
+        high = from[2] >>> 14 | (long) from[3] << 11 | (long) from[4] << 36;
+    }
+
+    @Override
+    public long getScore() {
+        return score;
+    }
+
+    @Override
+    public int getTile(int row, int colomn) {
+        unpackRows(lines);
+        return (lines[row] >>> (5 * colomn)) & 0x1F;
+    }
+
+    long getLow() {
+        return low;
+    }
+
+    long getHigh() {
+        return high;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getColomns() {
+        return colomns;
+    }
+
+    @Override
+    public int getStyle() {
+        return mode.id;
+    }
+
+    @Override
+    public boolean getHaveWon() {
+        return haveWon;
+    }
+
+    @Override
+    public int getLastSpawnCell() {
+        return lastSpawnCell;
+    }
+
+    @Override
+    public int getLastSpawnValue() {
+        return lastSpawnValue;
+    }
+}
@@ -1,9 +1,15 @@
 package game;
 
-import java.awt.*;
 import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.zip.CRC32C;
+import java.util.random.RandomGenerator;
 
-class Game {
+class Game implements Engine {
     static final int MOVE_UP = 1;
     static final int MOVE_DOWN = 2;
     static final int MOVE_LEFT = 3;
@@ -15,227 +21,440 @@ class Game {
     static final int DEFAULT_STYLE = 0;
     static final int CHINESE_DYNASTY = 1;
     static final int FIVE_FIVE = 2;
-    private static final double probability = 0.1;
+    static final int THREE_THREE = 3;
+    static final int SIX_SIX = 4;
+    static final int EIGHT_EIGHT = 5;
+    static final double probability = 0.1;
+    private static final int saveMagic = 0x32303438;
+    private static final int saveVersion = 2;
+    private static final int saveHeaderSize = 16;
+    private static final int maxSaveSize = 1 << 16;
     final int colomns;
     final int rows;
-    final TileStyle[] style;
-    final Font font;
-    final String hint;
     private final int winNum;
     private final int styleType;
+    private final GameMode mode;
     private final int tile[][];
+    private final int trace[];
+    private final RandomGenerator random;
     private long score;
     private boolean haveWon;
+    private int emptyCount;
+    private int maxTile;
+    private int winTiles;
+    private boolean mergeAvailable;
+    private int lastSpawnCell;
+    private int lastSpawnValue;
+    private long changedCells;
+    private int traceLength;
 
     Game(int gameStyle) {
-        switch (gameStyle) {
-            case CHINESE_DYNASTY:
-                rows = 4;
-                colomns = 4;
-                winNum = 11;
-                styleType = CHINESE_DYNASTY;
-                font = Style.chineseFont;
-                style = Style.dynastyStyle;
-                hint = "Try to establish communism!";
-                break;
-            case FIVE_FIVE:
-                rows = 5;
-                colomns = 5;
-                winNum = 14;
-                styleType = FIVE_FIVE;
-                font = Style.smallFont;
-                style = Style.fiveStyle;
-                hint = "Try to reach 16384!";
-                break;
-            default:
-                rows = 4;
-                colomns = 4;
-                winNum = 11;
-                styleType = DEFAULT_STYLE;
-                font = Style.defaultFont;
-                style = Style.defaultStyle;
-                hint = "Try to reach 2048!";
-        }
+        this(gameStyle, RandomGenerator.getDefault());
+    }
+
+    /**
+     * @param random spawn source owned by this game alone; seed it to replay a game exactly
+     */
+    Game(int gameStyle, RandomGenerator random) {
+        this(gameStyle, random, 2);
+    }
+
+    /**
+     * @param initialTiles number of tiles spawned before the first move; replays place their own
+     */
+    Game(int gameStyle, RandomGenerator random, int initialTiles) {
+        this(GameMode.get(gameStyle), random, initialTiles);
+    }
+
+    Game(GameMode mode, RandomGenerator random, int initialTiles) {
+        this.random = random;
+        this.mode = mode;
+        rows = mode.rows;
+        colomns = mode.colomns;
+        winNum = mode.winNum;
+        styleType = mode.id;
 
         tile = new int[rows][colomns];
+        trace = new int[rows * colomns];
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < colomns; j++) {
                 tile[i][j] = 0;
             }
         }
+        emptyCount = rows * colomns;
 
-        generateTile();
-        generateTile();
+        for (int k = 0; k < initialTiles; k++) {
+            generateTile();
+        }
     }
 
     Game(File file) throws IOException {
-        DataInputStream dataInput = new DataInputStream(new FileInputStream(file));
-        int tmp = dataInput.readInt();
-        switch (tmp) {
-            case CHINESE_DYNASTY:
-                rows = 4;
-                colomns = 4;
-                winNum = 11;
-                styleType = CHINESE_DYNASTY;
-                font = Style.chineseFont;
-                style = Style.dynastyStyle;
-                hint = "Try to establish communism!";
-                break;
-            case FIVE_FIVE:
-                rows = 5;
-                colomns = 5;
-                winNum = 14;
-                styleType = FIVE_FIVE;
-                font = Style.smallFont;
-                style = Style.fiveStyle;
-                hint = "Try to reach 16384!";
-                break;
-            default:
-                rows = 4;
-                colomns = 4;
-                winNum = 11;
-                styleType = DEFAULT_STYLE;
-                font = Style.defaultFont;
-                style = Style.defaultStyle;
-                hint = "Try to reach 2048!";
-        }
+        this(file, RandomGenerator.getDefault());
+    }
 
-        tile = new int[rows][colomns];
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < colomns; j++) {
-                tmp = dataInput.readInt();
-                if (tmp < 0 || tmp > rows * colomns + 1) {
-                    dataInput.close();
-                    throw new IOException("Input logical error");
+    Game(File file, RandomGenerator random) throws IOException {
+        this(readSave(file.toPath()), random);
+    }
+
+    /**
+     * Reads a state written by {@link #writeState(ByteBuffer)}, advancing {@code in} past it.
+     */
+    Game(ByteBuffer in, RandomGenerator random) throws IOException {
+        this(readStyle(in), random, 0);
+        try {
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < colomns; j++) {
+                    int tmp = in.get();
+                    // saves do not record the spawn policy, so allow any policy's largest tile
+                    if (tmp < 0 || tmp > GameMode.maxExponent(rows * colomns, SpawnPolicy.exponentLimit)) {
+                        throw new IOException("Input logical error");
+                    }
+                    tile[i][j] = tmp;
                 }
-                tile[i][j] = tmp;
             }
+            long tmpl = in.getLong();
+            if (tmpl < 0L) {
+                throw new IOException("Input logical error");
+            }
+            score = tmpl;
+            switch (in.get()) {
+                case 0:
+                    haveWon = false;
+                    break;
+                case 1:
+                    haveWon = true;
+                    break;
+                default:
+                    throw new IOException("Input logical error");
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Input logical error", e);
         }
+        recount();
+    }
 
-        long tmpl = dataInput.readLong();
-        if (tmpl < 0L) {
-            dataInput.close();
+    private static int readStyle(ByteBuffer in) throws IOException {
+        if (!in.hasRemaining()) {
             throw new IOException("Input logical error");
         }
-        score = tmpl;
-
-        tmp = dataInput.readInt();
-        switch (tmp) {
-            case 0:
-                haveWon = false;
-                break;
-            case 1:
-                haveWon = true;
-                break;
-            default:
-                dataInput.close();
-                throw new IOException("Input logical error");
+        return in.get();
+    }
+
+    /**
+     * Writes style, one byte per tile, score and the won flag: {@link #stateSize()} bytes.
+     */
+    void writeState(ByteBuffer out) {
+        out.put((byte) styleType);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < colomns; j++) {
+                out.put((byte) tile[i][j]);
+            }
         }
-        dataInput.close();
+        out.putLong(score);
+        out.put((byte) (haveWon ? 1 : 0));
     }
 
-    void save(String path) throws IOException {
-        DataOutputStream dataOutput = new DataOutputStream(new FileOutputStream(path));
-        dataOutput.writeInt(styleType);
+    int stateSize() {
+        return 1 + rows * colomns + 8 + 1;
+    }
+
+    /**
+     * Replaces the board, score and won flag with the current state of {@code history}
+     * and forgets the last spawn, which that state no longer shows.
+     */
+    void restore(MoveHistory history) {
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < colomns; j++) {
-                dataOutput.writeInt(tile[i][j]);
+                tile[i][j] = history.tile(i * colomns + j);
             }
         }
-        dataOutput.writeLong(score);
-        dataOutput.writeInt(haveWon ? 1 : 0);
-        dataOutput.close();
+        score = history.score();
+        haveWon = history.haveWon();
+        lastSpawnCell = -1;
+        lastSpawnValue = 0;
+        changedCells = -1L;
+        traceLength = 0;
+        recount();
     }
 
-    int move(int direction) {
-        boolean isMoved = false;
+    /**
+     * Rebuilds the board summary that moves and spawns otherwise keep up to date.
+     */
+    private void recount() {
+        emptyCount = 0;
+        maxTile = 0;
+        winTiles = 0;
+        mergeAvailable = false;
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < colomns; j++) {
+                if (tile[i][j] == 0) {
+                    emptyCount++;
+                }
+                if (tile[i][j] == winNum) {
+                    winTiles++;
+                }
+                maxTile = Math.max(maxTile, tile[i][j]);
+            }
+            scanRow(i);
+        }
+    }
+
+    /**
+     * Writes a version 2 save: magic, version, body length and CRC32C of the body, then
+     * {@link #writeState(ByteBuffer)}. The file is written beside the target and renamed
+     * over it, so a crash never leaves a half-written save.
+     */
+    void save(String path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(saveHeaderSize + stateSize());
+        buffer.position(saveHeaderSize);
+        writeState(buffer);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().flip().position(saveHeaderSize));
+        buffer.putInt(0, saveMagic).putInt(4, saveVersion).putInt(8, stateSize()).putInt(12, (int) crc.getValue());
+        buffer.flip();
+
+        Path target = Paths.get(path).toAbsolutePath();
+        // not createTempFile, which makes the file owner-only: a new save gets the umask permissions
+        // any new file gets, and a replaced save keeps the permissions it had
+        Path temp = Files.createFile(target.resolveSibling(
+                target.getFileName() + "." + Long.toHexString(System.nanoTime()) + ".tmp"));
+        try {
+            if (Files.exists(target) && Files.getFileAttributeView(target, PosixFileAttributeView.class) != null) {
+                Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(target));
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Reads a whole save file and returns its state in the {@link #writeState(ByteBuffer)} layout.
+     * Files without the version 2 magic are read as the original format: style, every tile and
+     * the won flag as ints, the score as a long.
+     */
+    private static ByteBuffer readSave(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > maxSaveSize) {
+                throw new IOException("Input logical error");
+            }
+            buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read until full
+            }
+        }
+        buffer.flip();
+        try {
+            if (buffer.remaining() >= saveHeaderSize && buffer.getInt(0) == saveMagic) {
+                if (buffer.getInt(4) != saveVersion) {
+                    throw new IOException("Unsupported save version " + buffer.getInt(4));
+                }
+                int length = buffer.getInt(8);
+                if (length < 0 || length != buffer.remaining() - saveHeaderSize) {
+                    throw new IOException("Input logical error");
+                }
+                CRC32C crc = new CRC32C();
+                crc.update(buffer.duplicate().position(saveHeaderSize));
+                if ((int) crc.getValue() != buffer.getInt(12)) {
+                    throw new IOException("Checksum mismatch");
+                }
+                return buffer.position(saveHeaderSize);
+            }
+
+            int tmp = buffer.getInt();
+            int styleType = tmp == CHINESE_DYNASTY || tmp == FIVE_FIVE ? tmp : DEFAULT_STYLE;
+            int cells = styleType == FIVE_FIVE ? 25 : 16;
+            ByteBuffer state = ByteBuffer.allocate(1 + cells + 8 + 1);
+            state.put((byte) styleType);
+            for (int k = 0; k < cells; k++) {
+                tmp = buffer.getInt();
+                if (tmp < 0 || tmp > Byte.MAX_VALUE) {
+                    throw new IOException("Input logical error");
+                }
+                state.put((byte) tmp);
+            }
+            state.putLong(buffer.getLong());
+            tmp = buffer.getInt();
+            if (tmp != 0 && tmp != 1) {
+                throw new IOException("Input logical error");
+            }
+            state.put((byte) tmp);
+            return state.flip();
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Input logical error", e);
+        }
+    }
+
+    @Override
+    public int move(int direction) {
+        if (!slide(direction)) {
+            return NO_MOVEMENT;
+        }
+        generateTile();
+        return afterSpawn();
+    }
+
+    /**
+     * Plays a recorded move: slides like {@link #move(int)} but spawns the given tile.
+     *
+     * @throws IllegalArgumentException if the slide leaves {@code cell} occupied; the board is then slid
+     */
+    int replay(int direction, int cell, int value) {
+        if (!slide(direction)) {
+            return NO_MOVEMENT;
+        }
+        if (tile[cell / colomns][cell % colomns] != 0) {
+            throw new IllegalArgumentException("Spawn cell is occupied: " + cell);
+        }
+        placeTile(cell, value);
+        return afterSpawn();
+    }
+
+    private boolean slide(int direction) {
+        changedCells = 0L;
+        traceLength = 0;
         switch (direction) {
             case MOVE_UP:
-                isMoved = moveUp();
-                break;
+                return moveUp();
             case MOVE_DOWN:
-                isMoved = moveDown();
-                break;
+                return moveDown();
             case MOVE_LEFT:
-                isMoved = moveLeft();
-                break;
+                return moveLeft();
             case MOVE_RIGHT:
-                isMoved = moveRight();
-        }
-        if (!isMoved) {
-            return NO_MOVEMENT;
+                return moveRight();
+            default:
+                return false;
         }
-        generateTile();
+    }
+
+    private int afterSpawn() {
         if (isGameOver()) {
             return GAME_OVER;
         }
-        if (!haveWon) {
-            for (int i = 0; i < rows; i++) {
-                for (int j = 0; j < rows; j++) {
-                    if (tile[i][j] == winNum) {
-                        haveWon = true;
-                        return PLAYER_WON;
-                    }
-                }
-            }
+        if (!haveWon && winTiles > 0) {
+            haveWon = true;
+            return PLAYER_WON;
         }
         return NORMAL_STEP;
     }
 
-    private boolean isGameOver() {
+    boolean isGameOver() {
+        return emptyCount == 0 && !mergeAvailable;
+    }
+
+    void generateTile() {
+        int spawn = mode.spawn.spawn(this, emptyCount, random);
+        int position = SpawnPolicy.position(spawn);
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < colomns; j++) {
-                if (tile[i][j] == 0) {
-                    return false;
+                if (tile[i][j] == 0 && position-- == 0) {
+                    placeTile(i * colomns + j, SpawnPolicy.exponent(spawn));
+                    return;
                 }
             }
         }
-        for (int i = 0; i < rows - 1; i++) {
-            for (int j = 0; j < colomns - 1; j++) {
-                if (tile[i][j] == tile[i][j + 1]
-                        || tile[i][j] == tile[i + 1][j]) {
-                    return false;
-                }
-            }
+    }
+
+    /**
+     * Puts a tile of {@code value} on the empty cell {@code row * colomns + colomn}.
+     */
+    void placeTile(int cell, int value) {
+        int i = cell / colomns;
+        int j = cell % colomns;
+        tile[i][j] = value;
+        changedCells |= 1L << cell;
+        emptyCount--;
+        maxTile = Math.max(maxTile, value);
+        if (value == winNum) {
+            winTiles++;
         }
-        for (int j = 0; j < colomns - 1; j++) {
-            if (tile[rows - 1][j] == tile[rows - 1][j + 1]) {
-                return false;
-            }
+        mergeAvailable |= (i > 0 && tile[i - 1][j] == value)
+                || (i < rows - 1 && tile[i + 1][j] == value)
+                || (j > 0 && tile[i][j - 1] == value)
+                || (j < colomns - 1 && tile[i][j + 1] == value);
+        lastSpawnCell = cell;
+        lastSpawnValue = value;
+    }
+
+    private void set(int i, int j, int value) {
+        if (tile[i][j] != value) {
+            tile[i][j] = value;
+            changedCells |= 1L << (i * colomns + j);
         }
-        for (int i = 0; i < rows - 1; i++) {
-            if (tile[i][colomns - 1] == tile[i + 1][colomns - 1]) {
-                return false;
-            }
+    }
+
+    /**
+     * Appends the tile now at (toI, toJ), which came from (fromI, fromJ), to the move trace.
+     */
+    private void traced(int fromI, int fromJ, int toI, int toJ) {
+        trace[traceLength++] = (fromI * colomns + fromJ) | (toI * colomns + toJ) << 8 | tile[toI][toJ] << 16;
+    }
+
+    /**
+     * Records the merge that just raised tile (i, j); the last traced tile slid into it.
+     */
+    private void merged(int i, int j) {
+        int exponent = tile[i][j];
+        changedCells |= 1L << (i * colomns + j);
+        trace[traceLength - 1] = (trace[traceLength - 1] & ~0xFF00) | (i * colomns + j) << 8 | 1 << 24;
+        emptyCount++;
+        maxTile = Math.max(maxTile, exponent);
+        if (exponent == winNum) {
+            winTiles++;
+        } else if (exponent == winNum + 1) {
+            winTiles -= 2;
         }
-        return true;
     }
 
-    private void generateTile() {
-        EmptyTileList list = new EmptyTileList();
-        list.n = 0;
-        for (int i = 0; i < colomns; i++) {
-            for (int j = 0; j < rows; j++) {
-                if (tile[i][j] == 0) {
-                    list.iList[list.n] = i;
-                    list.jList[list.n] = j;
-                    list.n++;
-                }
+    /**
+     * Notes equal neighbours within row {@code i} and against row {@code i - 1}, once both are final.
+     */
+    private void scanRow(int i) {
+        if (mergeAvailable) {
+            return;
+        }
+        for (int j = 0; j < colomns; j++) {
+            if (tile[i][j] != 0 && ((j < colomns - 1 && tile[i][j] == tile[i][j + 1])
+                    || (i > 0 && tile[i][j] == tile[i - 1][j]))) {
+                mergeAvailable = true;
+                return;
             }
         }
-        int position = (int) Math.floor(Math.random() * list.n);
-        if (Math.random() <= probability) {
-            tile[list.iList[position]][list.jList[position]] = 2;
-        } else {
-            tile[list.iList[position]][list.jList[position]] = 1;
+    }
+
+    /**
+     * Notes equal neighbours within colomn {@code j} and against colomn {@code j - 1}, once both are final.
+     */
+    private void scanColomn(int j) {
+        if (mergeAvailable) {
+            return;
+        }
+        for (int i = 0; i < rows; i++) {
+            if (tile[i][j] != 0 && ((i < rows - 1 && tile[i][j] == tile[i + 1][j])
+                    || (j > 0 && tile[i][j] == tile[i][j - 1]))) {
+                mergeAvailable = true;
+                return;
+            }
         }
     }
 
     private boolean moveUp() {
         boolean isMoved = false;
+        mergeAvailable = false;
         for (int j = 0; j < colomns; j++) {
             int k = 0;
-            for (int i = 0, l = 0; k < colomns; k++, i++) {
+            for (int i = 0, l = 0; k < rows; k++, i++) {
                 while (i < rows && tile[i][j] == 0) {
                     i++;
                 }
@@ -243,24 +462,28 @@ class Game {
                     break;
                 }
                 if (i > k) {
-                    tile[k][j] = tile[i][j];
+                    set(k, j, tile[i][j]);
                     isMoved = true;
                 }
+                traced(i, j, k, j);
                 if (k > l && tile[k][j] == tile[k - 1][j]) {
-                    score += style[++tile[k - 1][j]].score;
+                    score += 1L << ++tile[k - 1][j];
+                    merged(k - 1, j);
                     l = k--;
                     isMoved = true;
                 }
             }
             for (; k < rows; k++) {
-                tile[k][j] = 0;
+                set(k, j, 0);
             }
+            scanColomn(j);
         }
         return isMoved;
     }
 
     private boolean moveDown() {
         boolean isMoved = false;
+        mergeAvailable = false;
         for (int j = 0; j < colomns; j++) {
             int k = rows - 1;
             for (int i = rows - 1, l = rows - 1; k > -1; k--, i--) {
@@ -271,24 +494,28 @@ class Game {
                     break;
                 }
                 if (i < k) {
-                    tile[k][j] = tile[i][j];
+                    set(k, j, tile[i][j]);
                     isMoved = true;
                 }
+                traced(i, j, k, j);
                 if (k < l && tile[k][j] == tile[k + 1][j]) {
-                    score += style[++tile[k + 1][j]].score;
+                    score += 1L << ++tile[k + 1][j];
+                    merged(k + 1, j);
                     l = k++;
                     isMoved = true;
                 }
             }
             for (; k > -1; k--) {
-                tile[k][j] = 0;
+                set(k, j, 0);
             }
+            scanColomn(j);
         }
         return isMoved;
     }
 
     private boolean moveLeft() {
         boolean isMoved = false;
+        mergeAvailable = false;
         for (int i = 0; i < rows; i++) {
             int k = 0;
             for (int j = 0, l = 0; k < colomns; k++, j++) {
@@ -299,24 +526,28 @@ class Game {
                     break;
                 }
                 if (j > k) {
-                    tile[i][k] = tile[i][j];
+                    set(i, k, tile[i][j]);
                     isMoved = true;
                 }
+                traced(i, j, i, k);
                 if (k > l && tile[i][k] == tile[i][k - 1]) {
-                    score += style[++tile[i][k - 1]].score;
+                    score += 1L << ++tile[i][k - 1];
+                    merged(i, k - 1);
                     l = k--;
                     isMoved = true;
                 }
             }
             for (; k < colomns; k++) {
-                tile[i][k] = 0;
+                set(i, k, 0);
             }
+            scanRow(i);
         }
         return isMoved;
     }
 
     private boolean moveRight() {
         boolean isMoved = false;
+        mergeAvailable = false;
         for (int i = 0; i < rows; i++) {
             int k = colomns - 1;
             for (int j = colomns - 1, l = colomns - 1; k > -1; k--, j--) {
@@ -327,46 +558,105 @@ class Game {
                     break;
                 }
                 if (j < k) {
-                    tile[i][k] = tile[i][j];
+                    set(i, k, tile[i][j]);
                     isMoved = true;
                 }
+                traced(i, j, i, k);
                 if (k < l && tile[i][k] == tile[i][k + 1]) {
-                    score += style[++tile[i][k + 1]].score;
+                    score += 1L << ++tile[i][k + 1];
+                    merged(i, k + 1);
                     l = k++;
                     isMoved = true;
                 }
             }
             for (; k > -1; k--) {
-                tile[i][k] = 0;
+                set(i, k, 0);
             }
+            scanRow(i);
         }
         return isMoved;
     }
 
-    long getScore() {
+    @Override
+    public long getScore() {
         return score;
     }
 
-    int getTile(int row, int colomn) {
+    @Override
+    public int getTile(int row, int colomn) {
         return tile[row][colomn];
     }
 
-    int getStyle() {
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getColomns() {
+        return colomns;
+    }
+
+    @Override
+    public int getStyle() {
         return styleType;
     }
 
-    boolean getHaveWon() {
+    @Override
+    public boolean getHaveWon() {
         return haveWon;
     }
 
-    class EmptyTileList {
+    /**
+     * @return bit {@code row * colomns + colomn} set for every cell the last move or replay may have changed
+     */
+    long getChangedCells() {
+        return changedCells;
+    }
 
-        int n;
-        int iList[], jList[];
+    /**
+     * @return number of tiles traced by the last move or replay, stationary ones included
+     */
+    int getTraceLength() {
+        return traceLength;
+    }
 
-        private EmptyTileList() {
-            this.iList = new int[colomns * rows];
-            this.jList = new int[colomns * rows];
-        }
+    /**
+     * @return cell {@code row * colomns + colomn} the k-th traced tile started from
+     */
+    int getTraceFrom(int k) {
+        return trace[k] & 0xFF;
+    }
+
+    /**
+     * @return cell the k-th traced tile ended on, shared with the tile it merged into
+     */
+    int getTraceTo(int k) {
+        return (trace[k] >>> 8) & 0xFF;
+    }
+
+    /**
+     * @return exponent the k-th traced tile had before the move
+     */
+    int getTraceExponent(int k) {
+        return (trace[k] >>> 16) & 0xFF;
+    }
+
+    boolean isTraceMerged(int k) {
+        return (trace[k] & 1 << 24) != 0;
+    }
+
+    GameMode getMode() {
+        return mode;
+    }
+
+    @Override
+    public int getLastSpawnCell() {
+        return lastSpawnCell;
+    }
+
+    @Override
+    public int getLastSpawnValue() {
+        return lastSpawnValue;
     }
 }
\ No newline at end of file
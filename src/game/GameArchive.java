@@ -0,0 +1,204 @@
+package game;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Append-only store for many game states and replay logs.
+ * <p>
+ * Records are appended to segment files of at most {@code segmentSize} bytes and read back
+ * through read-only memory maps, so an archive far larger than the heap can be served.
+ * A separate index holds one fixed-size entry per record id (segment, offset, length, kind),
+ * so looking up an id is a single positional read.
+ */
+class GameArchive implements Closeable {
+
+    static final int gameRecord = 0;
+    static final int replayRecord = 1;
+    static final int defaultSegmentSize = 1 << 30;
+    private static final String indexName = "index.dat";
+    private static final int entrySize = 16;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FileChannel index;
+    private final List<FileChannel> segments = new ArrayList<>();
+    private final List<MappedByteBuffer> maps = new ArrayList<>();
+    private final ByteBuffer pending = ByteBuffer.allocate(entrySize);
+    private long count;
+
+    GameArchive(Path directory) throws IOException {
+        this(directory, defaultSegmentSize);
+    }
+
+    GameArchive(Path directory, int segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        index = FileChannel.open(directory.resolve(indexName),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        count = index.size() / entrySize;
+        for (int k = 0; Files.exists(segmentPath(k)); k++) {
+            openSegment(k);
+        }
+        if (segments.isEmpty()) {
+            openSegment(0);
+        }
+    }
+
+    long appendGame(Game game) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(game.stateSize());
+        game.writeState(record);
+        record.flip();
+        return append(record, gameRecord);
+    }
+
+    long appendReplay(byte replay[]) throws IOException {
+        return append(ByteBuffer.wrap(replay), replayRecord);
+    }
+
+    /**
+     * @return the id of the new record; ids are consecutive from 0
+     */
+    synchronized long append(ByteBuffer record, int kind) throws IOException {
+        int length = record.remaining();
+        if (length > segmentSize) {
+            throw new IOException("Record larger than a segment");
+        }
+        int segment = segments.size() - 1;
+        FileChannel channel = segments.get(segment);
+        long offset = channel.size();
+        if (offset + length > segmentSize) {
+            channel = openSegment(++segment);
+            offset = 0;
+        }
+        while (record.hasRemaining()) {
+            channel.write(record, offset + length - record.remaining());
+        }
+        pending.clear();
+        pending.putInt(segment).putInt((int) offset).putInt(length).putInt(kind).flip();
+        while (pending.hasRemaining()) {
+            index.write(pending, count * entrySize + pending.position());
+        }
+        return count++;
+    }
+
+    /**
+     * @return a read-only view of the record's bytes inside the segment map; nothing is copied
+     */
+    ByteBuffer get(long id) throws IOException {
+        ByteBuffer found = entry(id);
+        int segment = found.getInt();
+        int offset = found.getInt();
+        int length = found.getInt();
+        return map(segment, offset + length).duplicate().position(offset).limit(offset + length).slice();
+    }
+
+    /**
+     * @return {@link #gameRecord} or {@link #replayRecord}
+     */
+    int kind(long id) throws IOException {
+        return entry(id).getInt(12);
+    }
+
+    Game readGame(long id) throws IOException {
+        return new Game(get(id), RandomGenerator.getDefault());
+    }
+
+    ReplayReader readReplay(long id) throws IOException {
+        return new ReplayReader(new BufferInput(get(id)));
+    }
+
+    synchronized long size() {
+        return count;
+    }
+
+    /**
+     * Forces appended records and index entries to the storage device.
+     */
+    synchronized void flush() throws IOException {
+        for (FileChannel segment : segments) {
+            segment.force(false);
+        }
+        index.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        index.close();
+        for (FileChannel segment : segments) {
+            segment.close();
+        }
+        maps.clear();
+    }
+
+    private ByteBuffer entry(long id) throws IOException {
+        ByteBuffer found = ByteBuffer.allocate(entrySize);
+        synchronized (this) {
+            if (id < 0 || id >= count) {
+                throw new IndexOutOfBoundsException("No record " + id);
+            }
+            while (found.hasRemaining()) {
+                index.read(found, id * entrySize + found.position());
+            }
+        }
+        return found.flip();
+    }
+
+    private synchronized MappedByteBuffer map(int segment, long end) throws IOException {
+        MappedByteBuffer mapped = maps.get(segment);
+        if (mapped == null || mapped.capacity() < end) {
+            FileChannel channel = segments.get(segment);
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            maps.set(segment, mapped);
+        }
+        return mapped;
+    }
+
+    private FileChannel openSegment(int segment) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segments.add(channel);
+        maps.add(null);
+        return channel;
+    }
+
+    private Path segmentPath(int segment) {
+        return directory.resolve(String.format("segment-%05d.dat", segment));
+    }
+
+    /**
+     * Streams a mapped record into readers that expect an {@link InputStream}.
+     */
+    private static final class BufferInput extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private BufferInput(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte b[], int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+    }
+}
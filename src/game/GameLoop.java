@@ -0,0 +1,168 @@
+package game;
+
+import javax.swing.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Owns a {@link Game} and runs all of its logic on one daemon thread, off the EDT.
+ * Directions come in through a bounded single-producer ring without locks. Everything
+ * queued when the logic thread wakes up is applied as one batch and published back to
+ * the EDT as a single {@link BoardSnapshot}, so key-repeat bursts cost one repaint.
+ * <p>
+ * Every move also replaces {@link #snapshot()}, which any thread may read without locking.
+ */
+final class GameLoop {
+
+    private static final int queueSize = 64;
+    private static final int historySize = 1024;
+    private final Game game;
+    private final MoveHistory history;
+    private final Consumer<BoardSnapshot> view;
+    private final ExecutorService executor;
+    private final int directions[] = new int[queueSize];
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile BoardSnapshot latest;
+
+    /**
+     * @param view receives every snapshot on the EDT, until {@link #shutdown()}
+     */
+    GameLoop(Game game, Consumer<BoardSnapshot> view) {
+        this.game = game;
+        this.view = view;
+        history = new MoveHistory(historySize, game.getMode());
+        history.record(game);
+        latest = new BoardSnapshot(game);
+        executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "2048-logic");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a direction; only one thread may call this. Returns false if the queue is full.
+     */
+    boolean offer(int direction) {
+        long t = tail.get();
+        if (t - head.get() == queueSize) {
+            return false;
+        }
+        directions[(int) (t % queueSize)] = direction;
+        tail.set(t + 1);
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+        return true;
+    }
+
+    /**
+     * Runs {@code task} on the logic thread and passes its result to {@code done} on the EDT,
+     * or {@code failed} if the task throws, so the caller always hears back.
+     */
+    <T> void call(Function<Game, T> task, T failed, Consumer<T> done) {
+        executor.execute(() -> {
+            T result;
+            try {
+                result = task.apply(game);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                result = failed;
+            }
+            T value = result;
+            SwingUtilities.invokeLater(() -> {
+                if (!executor.isShutdown()) {
+                    done.accept(value);
+                }
+            });
+        });
+    }
+
+    /**
+     * Runs {@code task} on the logic thread and waits for its result.
+     */
+    <T> T await(Function<Game, T> task) throws InterruptedException, ExecutionException {
+        return executor.submit(() -> task.apply(game)).get();
+    }
+
+    /**
+     * @return the board, score and won flag after the latest move, from any thread
+     */
+    BoardSnapshot snapshot() {
+        return latest;
+    }
+
+    /**
+     * Steps back one move, if any, and publishes the restored board.
+     */
+    void undo() {
+        executor.execute(() -> {
+            if (history.back()) {
+                game.restore(history);
+                publish(new BoardSnapshot(game));
+            }
+        });
+    }
+
+    /**
+     * Replays the move {@link #undo()} took back, if nothing was played since.
+     */
+    void redo() {
+        executor.execute(() -> {
+            if (history.forward()) {
+                game.restore(history);
+                publish(new BoardSnapshot(game));
+            }
+        });
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void drain() {
+        scheduled.set(false);
+        int moves = 0;
+        int result = Game.NO_MOVEMENT;
+        long changed = 0L;
+        for (long h = head.get(); h != tail.get(); ) {
+            int direction = directions[(int) (h % queueSize)];
+            head.set(++h);
+            int moved = game.move(direction);
+            if (moved == Game.NO_MOVEMENT) {
+                continue;
+            }
+            moves++;
+            history.record(game);
+            changed |= game.getChangedCells();
+            result = moved;
+            if (moved != Game.NORMAL_STEP) {
+                head.set(tail.get());
+                break;
+            }
+            // the batch snapshot published below covers the last move
+            if (head.get() != tail.get()) {
+                latest = new BoardSnapshot(game, moved, game.getChangedCells(), false);
+            }
+        }
+        if (moves > 0) {
+            publish(new BoardSnapshot(game, result, changed, moves == 1));
+        }
+    }
+
+    private void publish(BoardSnapshot snapshot) {
+        latest = snapshot;
+        SwingUtilities.invokeLater(() -> {
+            if (!executor.isShutdown()) {
+                view.accept(snapshot);
+            }
+        });
+    }
+}
@@ -0,0 +1,76 @@
+package game;
+
+/**
+ * Rules of one game mode. Ids are stored in saves, replays and the high score file, so existing
+ * ids never change and new modes are only appended. A board holds at most 64 cells, one bit each
+ * in {@link Game#getChangedCells()}.
+ */
+final class GameMode {
+
+    static final int classicTiles = 0;
+    static final int dynastyTiles = 1;
+    static final int fiveTiles = 2;
+
+    private static final GameMode modes[] = {
+            new GameMode(Game.DEFAULT_STYLE, 4, 4, 11, SpawnPolicy.standard, classicTiles),
+            new GameMode(Game.CHINESE_DYNASTY, 4, 4, 11, SpawnPolicy.standard, dynastyTiles),
+            new GameMode(Game.FIVE_FIVE, 5, 5, 14, SpawnPolicy.standard, fiveTiles),
+            new GameMode(Game.THREE_THREE, 3, 3, 9, SpawnPolicy.standard, classicTiles),
+            new GameMode(Game.SIX_SIX, 6, 6, 13, SpawnPolicy.standard, classicTiles),
+            new GameMode(Game.EIGHT_EIGHT, 8, 8, 16, SpawnPolicy.standard, classicTiles),};
+
+    final int id;
+    final int rows;
+    final int colomns;
+    /**
+     * Exponent of the tile that wins the game.
+     */
+    final int winNum;
+    final SpawnPolicy spawn;
+    /**
+     * Tile style family used by {@link Style} to draw this mode.
+     */
+    final int tileStyle;
+
+    private GameMode(int id, int rows, int colomns, int winNum, SpawnPolicy spawn, int tileStyle) {
+        this.id = id;
+        this.rows = rows;
+        this.colomns = colomns;
+        this.winNum = winNum;
+        this.spawn = spawn;
+        this.tileStyle = tileStyle;
+    }
+
+    /**
+     * @return the mode with {@code id}, or the classic mode for ids this build does not know,
+     * as the original style switch did
+     */
+    static GameMode get(int id) {
+        return id >= 0 && id < modes.length ? modes[id] : modes[Game.DEFAULT_STYLE];
+    }
+
+    static int count() {
+        return modes.length;
+    }
+
+    /**
+     * @return this mode with tiles spawned by {@code spawn}; saves and styles still see the same id
+     */
+    GameMode withSpawn(SpawnPolicy spawn) {
+        return new GameMode(id, rows, colomns, winNum, spawn, tileStyle);
+    }
+
+    /**
+     * @return the largest exponent a tile can reach on this board with this mode's spawns
+     */
+    int maxExponent() {
+        return maxExponent(rows * colomns, spawn.maxExponent());
+    }
+
+    /**
+     * @return the largest exponent a board of {@code cells} reaches when no spawn exceeds {@code maxSpawn}
+     */
+    static int maxExponent(int cells, int maxSpawn) {
+        return cells + maxSpawn - 1;
+    }
+}
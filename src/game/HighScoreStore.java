@@ -0,0 +1,183 @@
+package game;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Best score and top scores per mode, shared by every thread of a process and, through an
+ * exclusive file lock, by every process using the same file.
+ * <p>
+ * The file starts with one best score per mode, as the original {@code highscore.dat} did,
+ * followed by a descending top list per mode. Updates are kept in memory and merged into the
+ * file in batches: bests take the maximum, top lists take the best {@link #topSize} of the
+ * file's list and the scores recorded here since the last flush, so nothing is lost or counted twice.
+ * A file written for fewer modes is widened on the next flush; modes this store does not know
+ * are carried over untouched.
+ */
+final class HighScoreStore {
+
+    static final int topSize = 10;
+    private static final int modeSize = 8 * (1 + topSize);
+    private static final Map<Path, Object> fileLocks = new ConcurrentHashMap<>();
+
+    private final Path path;
+    private final Object fileLock;
+    private final int modes;
+    private final int batchSize;
+    private final LongAccumulator bests[];
+    private final long leaders[][];
+    private final long unflushed[][];
+    private final AtomicInteger pending = new AtomicInteger();
+
+    HighScoreStore(Path path, int modes) throws IOException {
+        this(path, modes, 1024);
+    }
+
+    /**
+     * @param batchSize number of {@link #record(int, long)} calls that triggers a flush
+     */
+    HighScoreStore(Path path, int modes, int batchSize) throws IOException {
+        this.path = path;
+        fileLock = fileLocks.computeIfAbsent(path.toAbsolutePath().normalize(), p -> new Object());
+        this.modes = modes;
+        this.batchSize = batchSize;
+        bests = new LongAccumulator[modes];
+        leaders = new long[modes][topSize];
+        unflushed = new long[modes][topSize];
+        for (int mode = 0; mode < modes; mode++) {
+            bests[mode] = new LongAccumulator(Math::max, 0L);
+        }
+        flush();
+    }
+
+    /**
+     * Records the final score of one game. Safe to call from any thread.
+     */
+    void record(int mode, long score) {
+        bests[mode].accumulate(score);
+        long top[] = leaders[mode];
+        synchronized (top) {
+            if (score > top[topSize - 1] && score > unflushed[mode][topSize - 1]) {
+                insert(unflushed[mode], score);
+            }
+        }
+        if (pending.incrementAndGet() >= batchSize) {
+            pending.set(0);
+            try {
+                flush();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    long best(int mode) {
+        return bests[mode].get();
+    }
+
+    /**
+     * @return the best scores of {@code mode} in descending order, as of the last flush
+     */
+    long[] top(int mode) {
+        long top[] = leaders[mode];
+        synchronized (top) {
+            int n = 0;
+            while (n < topSize && top[n] > 0L) {
+                n++;
+            }
+            return Arrays.copyOf(top, n);
+        }
+    }
+
+    /**
+     * Merges this process's updates with the file under an exclusive lock and writes the result back.
+     * File locks belong to the whole JVM, so stores on the same file in one process also take a
+     * shared monitor first.
+     */
+    void flush() throws IOException {
+        synchronized (fileLock) {
+            flushLocked();
+        }
+    }
+
+    private void flushLocked() throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // closing the channel releases the lock
+            channel.lock();
+            long existing = channel.size();
+            int fileModes = existing % modeSize == 0 ? (int) (existing / modeSize) : 0;
+            int layout = Math.max(modes, fileModes);
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    Math.max((long) layout * modeSize, existing));
+            long stored[][] = new long[layout][1 + topSize];
+            for (int mode = 0; mode < layout; mode++) {
+                if (mode < fileModes) {
+                    stored[mode][0] = map.getLong(mode * 8);
+                    for (int k = 0; k < topSize; k++) {
+                        stored[mode][1 + k] = map.getLong(offset(fileModes, mode, k));
+                    }
+                } else if (fileModes == 0 && existing >= (mode + 1) * 8L) {
+                    stored[mode][0] = map.getLong(mode * 8);
+                }
+            }
+            for (int mode = 0; mode < modes; mode++) {
+                bests[mode].accumulate(stored[mode][0]);
+                long merged[] = new long[topSize];
+                if (mode < fileModes) {
+                    for (int k = 0; k < topSize; k++) {
+                        insert(merged, stored[mode][1 + k]);
+                    }
+                } else {
+                    insert(merged, bests[mode].get());
+                }
+                long top[] = leaders[mode];
+                synchronized (top) {
+                    for (long score : unflushed[mode]) {
+                        insert(merged, score);
+                    }
+                    Arrays.fill(unflushed[mode], 0L);
+                    System.arraycopy(merged, 0, top, 0, topSize);
+                }
+                stored[mode][0] = bests[mode].get();
+                System.arraycopy(merged, 0, stored[mode], 1, topSize);
+            }
+            for (int mode = 0; mode < layout; mode++) {
+                map.putLong(mode * 8, stored[mode][0]);
+                for (int k = 0; k < topSize; k++) {
+                    map.putLong(offset(layout, mode, k), stored[mode][1 + k]);
+                }
+            }
+            map.force();
+        }
+    }
+
+    /**
+     * Position of entry {@code rank} of the top list of {@code mode} in a file laid out for {@code layout} modes.
+     */
+    private static int offset(int layout, int mode, int rank) {
+        return layout * 8 + (mode * topSize + rank) * 8;
+    }
+
+    /**
+     * Inserts {@code score} into the descending list {@code top}, dropping its last entry.
+     */
+    private static void insert(long top[], long score) {
+        if (score <= top[top.length - 1]) {
+            return;
+        }
+        int k = top.length - 1;
+        for (; k > 0 && top[k - 1] < score; k--) {
+            top[k] = top[k - 1];
+        }
+        top[k] = score;
+    }
+}
@@ -8,25 +8,33 @@ import java.awt.event.KeyEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.*;
+import java.nio.file.Paths;
 
 class Interface {
 
-    private static final int borderWidthHalf = 2;
-    private static final Color borderColor = Color.lightGray;
     private static final String highScoreRecord = "highscore.dat";
+    private static final String directionNames[] = {"", "UP", "DOWN", "LEFT", "RIGHT"};
+    private static final int autoplayDelay = 20;
+    private static HighScoreStore highScores;
     private final int style;
     private JFrame mainFrame;
-    private JPanel mainPanel;
+    private BoardPanel board;
     private JPanel northPanel;
     private JPanel savePanel;
-    private JLabel[][] labels;
     private JLabel scoreLabel;
     private JLabel highScoreLabel;
     private JLabel southLabel;
     private JButton saveButton;
     private Game game;
+    private GameLoop loop;
+    private BoardSnapshot snapshot;
+    private MovePolicy solver;
+    private Timer autoplay;
     private long highScore;
+    private long shownScore;
+    private long shownHighScore;
     private boolean saved;
+    private boolean thinking;
 
     Interface(int gameStyle) {
         style = gameStyle;
@@ -43,7 +51,6 @@ class Interface {
 
     private void initialize(boolean gameInitialized) {
         mainFrame = new JFrame("2048");
-        mainPanel = new JPanel();
         northPanel = new JPanel();
         savePanel = new JPanel();
 
@@ -53,44 +60,26 @@ class Interface {
         } else {
             saved = true;
         }
-
-        labels = new JLabel[game.rows][game.colomns];
-        int i, j;
-        for (i = 0; i < game.rows; i++) {
-            for (j = 0; j < game.colomns; j++) {
-                labels[i][j] = new JLabel();
-                labels[i][j].setHorizontalAlignment(SwingConstants.CENTER);
-                labels[i][j].setFont(game.font);
-                labels[i][j].setOpaque(true);
+        solver = advisor();
+        loop = new GameLoop(game, this::show);
+        snapshot = loop.snapshot();
+        thinking = false;
+        autoplay = new Timer(autoplayDelay, e -> {
+            if (thinking || board.isAnimating()) {
+                return;
             }
-        }
+            thinking = true;
+            loop.call(g -> solver.chooseMove(g, null), Game.NO_MOVEMENT, direction -> {
+                thinking = false;
+                if (direction == Game.NO_MOVEMENT) {
+                    autoplay.stop();
+                } else {
+                    loop.offer(direction);
+                }
+            });
+        });
 
-        labels[0][0].setBorder(BorderFactory.createMatteBorder(
-                borderWidthHalf * 2, borderWidthHalf * 2, borderWidthHalf, borderWidthHalf, borderColor));
-        for (j = 1; j < game.colomns - 1; j++) {
-            labels[0][j].setBorder(BorderFactory.createMatteBorder(
-                    borderWidthHalf * 2, borderWidthHalf, borderWidthHalf, borderWidthHalf, borderColor));
-        }
-        labels[0][game.colomns - 1].setBorder(BorderFactory.createMatteBorder(
-                borderWidthHalf * 2, borderWidthHalf, borderWidthHalf, borderWidthHalf * 2, borderColor));
-        for (i = 1; i < game.rows - 1; i++) {
-            labels[i][0].setBorder(BorderFactory.createMatteBorder(
-                    borderWidthHalf, borderWidthHalf * 2, borderWidthHalf, borderWidthHalf, borderColor));
-            for (j = 1; j < game.colomns - 1; j++) {
-                labels[i][j].setBorder(BorderFactory.createMatteBorder(
-                        borderWidthHalf, borderWidthHalf, borderWidthHalf, borderWidthHalf, borderColor));
-            }
-            labels[i][game.colomns - 1].setBorder(BorderFactory.createMatteBorder(borderWidthHalf,
-                    borderWidthHalf, borderWidthHalf, borderWidthHalf * 2, borderColor));
-        }
-        labels[game.rows - 1][0].setBorder(BorderFactory.createMatteBorder(
-                borderWidthHalf, borderWidthHalf * 2, borderWidthHalf * 2, borderWidthHalf, borderColor));
-        for (j = 1; j < game.colomns - 1; j++) {
-            labels[game.rows - 1][j].setBorder(BorderFactory.createMatteBorder(
-                    borderWidthHalf, borderWidthHalf, borderWidthHalf * 2, borderWidthHalf, borderColor));
-        }
-        labels[game.rows - 1][game.colomns - 1].setBorder(BorderFactory.createMatteBorder(borderWidthHalf,
-                borderWidthHalf, borderWidthHalf * 2, borderWidthHalf * 2, borderColor));
+        board = new BoardPanel(Style.tiles(style), Style.font(style), snapshot);
 
         scoreLabel = new JLabel();
         scoreLabel.setFont(new Font(Font.DIALOG, Font.BOLD, 24));
@@ -112,23 +101,12 @@ class Interface {
         southLabel = new JLabel();
         southLabel.setFont(new Font(Font.DIALOG, Font.BOLD, 24));
         southLabel.setHorizontalAlignment(SwingConstants.CENTER);
-        if (game.getHaveWon()) {
-            southLabel.setText("YOU HAVE WON!");
-        } else {
-            southLabel.setText(game.hint);
-        }
+        southLabel.setText(statusText());
 
         mainFrame.setLayout(new BorderLayout(0, 5));
         mainFrame.add(northPanel, BorderLayout.NORTH);
         mainFrame.add(southLabel, BorderLayout.SOUTH);
-        mainFrame.add(mainPanel, BorderLayout.CENTER);
-
-        mainPanel.setLayout(new GridLayout(game.rows, game.colomns));
-        for (i = 0; i < game.rows; i++) {
-            for (j = 0; j < game.colomns; j++) {
-                mainPanel.add(labels[i][j]);
-            }
-        }
+        mainFrame.add(board, BorderLayout.CENTER);
 
         northPanel.setLayout(new BorderLayout(0, 10));
         northPanel.add(scoreLabel, BorderLayout.NORTH);
@@ -166,23 +144,35 @@ class Interface {
         });
 
         mainFrame.setBounds(400, 100, 400, 530);
-        mainFrame.setResizable(false);
+        mainFrame.setMinimumSize(new Dimension(200, 265));
         mainFrame.setVisible(true);
         mainFrame.addKeyListener(new MyKeyListener());
         display();
     }
 
     private void display() {
-        int i, j;
-        for (i = 0; i < game.rows; i++) {
-            for (j = 0; j < game.colomns; j++) {
-                labels[i][j].setBackground(game.style[game.getTile(i, j)].bgColor);
-                labels[i][j].setForeground(game.style[game.getTile(i, j)].txColor);
-                labels[i][j].setText(game.style[game.getTile(i, j)].label);
-            }
+        shownScore = -1L;
+        shownHighScore = -1L;
+        board.repaintCells(-1L);
+        displayScores();
+    }
+
+    /**
+     * Sets only the score texts that differ from what is shown.
+     */
+    private void displayScores() {
+        if (snapshot.getScore() != shownScore) {
+            shownScore = snapshot.getScore();
+            scoreLabel.setText("SCORE: " + shownScore);
+        }
+        if (highScore != shownHighScore) {
+            shownHighScore = highScore;
+            highScoreLabel.setText("High Score: " + shownHighScore);
         }
-        scoreLabel.setText("SCORE: " + game.getScore());
-        highScoreLabel.setText("High Score: " + highScore);
+    }
+
+    private String statusText() {
+        return snapshot.getHaveWon() ? "YOU HAVE WON!" : Style.hint(style);
     }
 
     private boolean saveGame() {
@@ -198,8 +188,19 @@ class Interface {
         if (!filePath.endsWith('.' + Main.savedGameExtension)) {
             filePath += '.' + Main.savedGameExtension;
         }
+        String path = filePath;
         try {
-            game.save(filePath);
+            IOException failure = loop.await(g -> {
+                try {
+                    g.save(path);
+                    return null;
+                } catch (IOException e) {
+                    return e;
+                }
+            });
+            if (failure != null) {
+                throw failure;
+            }
         } catch (Exception e) {
             JOptionPane.showMessageDialog(mainFrame, "Saving failed!\n" + e.getMessage(),
                     "Saving Failed", JOptionPane.ERROR_MESSAGE);
@@ -209,115 +210,160 @@ class Interface {
         return true;
     }
 
-    private void recordHighScore(long score) {
-        long[] tmp = new long[Style.styleNum];
+    /**
+     * @return the policy behind hints and autoplay: the mode's tablebase if one was built, backed by
+     * the expectimax solver on 4×4 boards; null if neither applies
+     */
+    private MovePolicy advisor() {
+        MovePolicy search = game.rows == BitboardGame.rows && game.colomns == BitboardGame.colomns ? new Solver() : null;
+        File table = new File(Tablebase.defaultName(game.getMode()));
+        if (!table.exists()) {
+            return search;
+        }
         try {
-            DataInputStream dataInput = new DataInputStream(new FileInputStream(highScoreRecord));
-            for (int i = 0; i < tmp.length; i++) {
-                tmp[i] = dataInput.readLong();
-                if (tmp[i] < 0L) {
-                    throw new IOException("Input logical error");
-                }
+            Tablebase tablebase = Tablebase.open(table.toPath());
+            if (tablebase.getMode().rows == game.rows && tablebase.getMode().colomns == game.colomns) {
+                return tablebase.orElse(search);
             }
         } catch (IOException e) {
-            for (int i = 0; i < tmp.length; i++) {
-                tmp[i] = 0L;
-            }
             e.printStackTrace();
         }
-        tmp[style] = score;
-        try {
-            DataOutputStream dataOutput = new DataOutputStream(new FileOutputStream(highScoreRecord));
-            for (int i = 0; i < tmp.length; i++) {
-                dataOutput.writeLong(tmp[i]);
+        return search;
+    }
+
+    private static synchronized HighScoreStore highScores() {
+        if (highScores == null) {
+            try {
+                highScores = new HighScoreStore(Paths.get(highScoreRecord), GameMode.count());
+            } catch (IOException e) {
+                e.printStackTrace();
             }
-            dataOutput.close();
-        } catch (IOException e) {
-            e.printStackTrace();
         }
+        return highScores;
     }
 
-    private long loadHighScore() {
-        long score;
+    private void recordHighScore(long score) {
+        HighScoreStore store = highScores();
+        if (store == null) {
+            return;
+        }
+        store.record(style, score);
         try {
-            DataInputStream dataInput = new DataInputStream(new FileInputStream(highScoreRecord));
-            long tmp[] = new long[Style.styleNum];
-            for (int i = 0; i < tmp.length; i++) {
-                tmp[i] = dataInput.readLong();
-                if (tmp[i] < 0L) {
-                    throw new IOException("Input logical error");
-                }
-            }
-            score = tmp[style];
+            store.flush();
         } catch (IOException e) {
-            score = 0L;
             e.printStackTrace();
         }
-        return score;
     }
 
+    private long loadHighScore() {
+        HighScoreStore store = highScores();
+        return store == null ? 0L : store.best(style);
+    }
+
+    /**
+     * Records the score unless the game is saved to be resumed, which records it when it ends.
+     */
     private void exit() {
-        recordHighScore(highScore);
+        autoplay.stop();
+        board.stopAnimation();
+        loop.shutdown();
+        if (!saved) {
+            recordHighScore(loop.snapshot().getScore());
+        }
         mainFrame.dispose();
         Main.main(null);
         System.gc();
     }
 
+    /**
+     * Receives on the EDT the snapshot published after each batch of moves.
+     */
+    private void show(BoardSnapshot next) {
+        snapshot = next;
+        saved = false;
+        if (next.getScore() > highScore) {
+            highScore = next.getScore();
+            highScoreLabel.setForeground(Color.red);
+        }
+        board.show(next);
+        displayScores();
+        switch (next.getResult()) {
+            case Game.NORMAL_STEP:
+                southLabel.setText(statusText());
+                break;
+            case Game.GAME_OVER:
+                autoplay.stop();
+                southLabel.setText("GAME OVER!");
+                int option1 = JOptionPane.showConfirmDialog(mainFrame,
+                        "You have lost! Your score is " + next.getScore()
+                                + ".\nDo you want to start new game?",
+                        "Game over!", JOptionPane.YES_NO_OPTION);
+                if (option1 == JOptionPane.YES_OPTION) {
+                    recordHighScore(next.getScore());
+                    board.stopAnimation();
+                    loop.shutdown();
+                    mainFrame.dispose();
+                    initialize(false);
+                } else {
+                    exit();
+                }
+                break;
+            case Game.PLAYER_WON:
+                boolean autoplaying = autoplay.isRunning();
+                autoplay.stop();
+                southLabel.setText("YOU HAVE WON!");
+                int option2 = JOptionPane.showConfirmDialog(mainFrame,
+                        "You have won! Do you want to continue?",
+                        "Congratulations!", JOptionPane.YES_NO_OPTION);
+                if (option2 == JOptionPane.NO_OPTION) {
+                    exit();
+                } else if (autoplaying) {
+                    autoplay.start();
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
     private class MyKeyListener extends KeyAdapter {
 
         @Override
         public void keyPressed(KeyEvent e) {
             int key = e.getKeyCode();
-            int result;
             switch (key) {
                 case KeyEvent.VK_UP:
-                    result = game.move(Game.MOVE_UP);
+                    loop.offer(Game.MOVE_UP);
                     break;
                 case KeyEvent.VK_DOWN:
-                    result = game.move(Game.MOVE_DOWN);
+                    loop.offer(Game.MOVE_DOWN);
                     break;
                 case KeyEvent.VK_LEFT:
-                    result = game.move(Game.MOVE_LEFT);
+                    loop.offer(Game.MOVE_LEFT);
                     break;
                 case KeyEvent.VK_RIGHT:
-                    result = game.move(Game.MOVE_RIGHT);
+                    loop.offer(Game.MOVE_RIGHT);
                     break;
-                default:
-                    result = Game.NO_MOVEMENT;
-            }
-            if (result != Game.NO_MOVEMENT) {
-                saved = false;
-                if (game.getScore() > highScore) {
-                    highScore = game.getScore();
-                    highScoreLabel.setForeground(Color.red);
-                }
-            }
-            switch (result) {
-                case Game.NORMAL_STEP:
-                    display();
+                case KeyEvent.VK_Z:
+                    loop.undo();
                     break;
-                case Game.GAME_OVER:
-                    southLabel.setText("GAME OVER!");
-                    display();
-                    int option1 = JOptionPane.showConfirmDialog(mainFrame,
-                            "You have lost! Your score is " + game.getScore()
-                                    + ".\nDo you want to start new game?",
-                            "Game over!", JOptionPane.YES_NO_OPTION);
-                    if (option1 == JOptionPane.YES_OPTION) {
-                        mainFrame.dispose();
-                        initialize(false);
-                    } else {
-                        exit();
+                case KeyEvent.VK_Y:
+                    loop.redo();
+                    break;
+                case KeyEvent.VK_H:
+                    if (solver != null) {
+                        loop.call(g -> solver.chooseMove(g, null), Game.NO_MOVEMENT,
+                                direction -> southLabel.setText("Hint: " + directionNames[Math.max(0, direction)]));
                     }
                     break;
-                case Game.PLAYER_WON:
-                    southLabel.setText("YOU HAVE WON!");
-                    display();
-                    int option2 = JOptionPane.showConfirmDialog(mainFrame,
-                            "You have won! Do you want to continue?",
-                            "Congratulations!", JOptionPane.YES_NO_OPTION);
-                    if (option2 == JOptionPane.NO_OPTION) {
-                        exit();
+                case KeyEvent.VK_A:
+                    if (solver == null) {
+                        break;
+                    }
+                    if (autoplay.isRunning()) {
+                        autoplay.stop();
+                    } else {
+                        autoplay.start();
                     }
                     break;
                 default:
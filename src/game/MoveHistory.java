@@ -0,0 +1,186 @@
+package game;
+
+/**
+ * Undo/redo history kept as a fixed-capacity ring of packed states: {@code words} longs of
+ * tile exponents, a score and a won flag per state, with no per-move objects. Recording past
+ * the capacity forgets the oldest state; recording after {@link #back()} drops the states
+ * {@link #forward()} could have returned to.
+ * <p>
+ * A one-word history is also a backtracking stack of {@link BitboardGame} boards:
+ * {@link #push(long, long)} and {@link #board()} skip the per-cell packing, and {@link #back()}
+ * walks the pushed boards newest first, as {@link NTupleTrainer} does to learn from a game.
+ */
+final class MoveHistory {
+
+    private final int capacity;
+    private final int words;
+    private final int bitsPerCell;
+    private final long boards[];
+    private final long scores[];
+    private final boolean won[];
+    private int first;
+    private int size;
+    private int current;
+
+    /**
+     * History of bitboards: one long per state, four bits per cell.
+     */
+    MoveHistory(int capacity) {
+        this(capacity, 1, 4);
+    }
+
+    /**
+     * History of games of {@code mode}, with enough bits per cell for its largest tile.
+     */
+    MoveHistory(int capacity, GameMode mode) {
+        this(capacity, words(mode), bitsPerCell(mode));
+    }
+
+    private MoveHistory(int capacity, int words, int bitsPerCell) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.words = words;
+        this.bitsPerCell = bitsPerCell;
+        boards = new long[capacity * words];
+        scores = new long[capacity];
+        won = new boolean[capacity];
+    }
+
+    static int bitsPerCell(GameMode mode) {
+        return Math.max(4, 32 - Integer.numberOfLeadingZeros(mode.maxExponent()));
+    }
+
+    static int words(GameMode mode) {
+        return (mode.rows * mode.colomns * bitsPerCell(mode) + 63) / 64;
+    }
+
+    /**
+     * Writes the tile exponents of {@code game} in row-major order, {@code bitsPerCell} bits each,
+     * into {@code words} longs of {@code into} from {@code base}.
+     */
+    static void pack(Engine game, int bitsPerCell, long into[], int base, int words) {
+        for (int w = 0; w < words; w++) {
+            into[base + w] = 0L;
+        }
+        int colomns = game.getColomns();
+        for (int i = 0; i < game.getRows(); i++) {
+            for (int j = 0; j < colomns; j++) {
+                long exponent = game.getTile(i, j);
+                int bit = (i * colomns + j) * bitsPerCell;
+                into[base + (bit >>> 6)] |= exponent << bit;
+                if ((bit & 63) + bitsPerCell > 64) {
+                    into[base + (bit >>> 6) + 1] |= exponent >>> (64 - (bit & 63));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return exponent of {@code cell} in a board written by {@link #pack}
+     */
+    static int unpack(long from[], int base, int bitsPerCell, int cell) {
+        int bit = cell * bitsPerCell;
+        long value = from[base + (bit >>> 6)] >>> bit;
+        if ((bit & 63) + bitsPerCell > 64) {
+            value |= from[base + (bit >>> 6) + 1] << (64 - (bit & 63));
+        }
+        return (int) (value & ((1L << bitsPerCell) - 1));
+    }
+
+    /**
+     * Makes the state of {@code game} the current one, packing it tile by tile.
+     */
+    void record(Engine game) {
+        int slot = next();
+        pack(game, bitsPerCell, boards, slot * words, words);
+        scores[slot] = game.getScore();
+        won[slot] = game.getHaveWon();
+    }
+
+    /**
+     * Makes {@code board} with {@code score} the current state of a one-word history.
+     */
+    void push(long board, long score) {
+        int slot = next();
+        boards[slot * words] = board;
+        scores[slot] = score;
+        won[slot] = false;
+    }
+
+    /**
+     * Steps to the previous state; false if there is none.
+     */
+    boolean back() {
+        if (current == 0) {
+            return false;
+        }
+        current--;
+        return true;
+    }
+
+    /**
+     * Steps to the state {@link #back()} left; false if there is none.
+     */
+    boolean forward() {
+        if (current + 1 >= size) {
+            return false;
+        }
+        current++;
+        return true;
+    }
+
+    void clear() {
+        first = 0;
+        size = 0;
+        current = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return exponent of {@code cell} ({@code row * colomns + colomn}) in the current state
+     */
+    int tile(int cell) {
+        return unpack(boards, current() * words, bitsPerCell, cell);
+    }
+
+    /**
+     * @return the first word of the current state, the whole board in a one-word history
+     */
+    long board() {
+        return boards[current() * words];
+    }
+
+    long score() {
+        return scores[current()];
+    }
+
+    boolean haveWon() {
+        return won[current()];
+    }
+
+    private int current() {
+        return (first + current) % capacity;
+    }
+
+    /**
+     * Drops the redo states and, when full, the oldest state, then makes a new state current.
+     * @return its slot
+     */
+    private int next() {
+        if (size > 0) {
+            size = current + 1;
+            if (size == capacity) {
+                first = (first + 1) % capacity;
+                size--;
+            }
+            current = size;
+        }
+        size++;
+        return current();
+    }
+}
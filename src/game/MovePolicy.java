@@ -0,0 +1,54 @@
+package game;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.random.RandomGenerator;
+
+/**
+ * Chooses the next direction for a headless game. A policy instance is used by one game at a time.
+ */
+@FunctionalInterface
+interface MovePolicy {
+
+    MovePolicy randomPolicy = (game, random) -> Game.MOVE_UP + random.nextInt(4);
+
+    /**
+     * Keeps the large tiles in the bottom-left corner, moving up only when nothing else moves.
+     */
+    MovePolicy cornerPolicy = (game, random) -> random.nextBoolean() ? Game.MOVE_DOWN : Game.MOVE_LEFT;
+
+    /**
+     * @param name "random", "corner", "expectimax", "tablebase:" followed by the path of a
+     *             {@link TablebaseBuilder} file, or "ntuple:" followed by the path of a trained
+     *             {@link NTupleNetwork}
+     */
+    static MovePolicy forName(String name) {
+        try {
+            if (name.startsWith("tablebase:")) {
+                return Tablebase.open(Paths.get(name.substring("tablebase:".length())));
+            }
+            if (name.startsWith("ntuple:")) {
+                return NTupleNetwork.load(Paths.get(name.substring("ntuple:".length())));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        switch (name) {
+            case "random":
+                return randomPolicy;
+            case "corner":
+                return cornerPolicy;
+            case "expectimax":
+                return new Solver(3, 0L, 18);
+            default:
+                throw new IllegalArgumentException("Unknown policy: " + name);
+        }
+    }
+
+    /**
+     * @return one of {@link Game#MOVE_UP} to {@link Game#MOVE_RIGHT}; if it does not move
+     * the board the simulator tries the others in the order down, left, right, up
+     */
+    int chooseMove(Engine game, RandomGenerator random);
+}
@@ -0,0 +1,213 @@
+package game;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.random.RandomGenerator;
+
+/**
+ * Learned evaluator for 4×4 bitboards: every tuple of cells reads its exponents as one index into a
+ * table of weights, and the value of a board is the sum over all tuples and their eight rotations
+ * and reflections, which share the same table. All tables live in one flat {@link #weights} array.
+ * Moves are chosen greedily on the points gained plus the value of the board after the slide.
+ * <p>
+ * File layout: magic, version, tuple count, each tuple as its length and cells (row-major
+ * indices), then the weights as little-endian floats.
+ */
+final class NTupleNetwork implements MovePolicy {
+
+    static final int magic = 0x3230344E;
+    static final int version = 1;
+
+    /**
+     * Rows, columns and squares of four cells: 327680 weights.
+     */
+    static final int small[][] = {{0, 1, 2, 3}, {4, 5, 6, 7}, {0, 1, 4, 5}, {1, 2, 5, 6}, {5, 6, 9, 10}};
+
+    /**
+     * Four 6-tuples along the edge and the second line: 64M weights.
+     */
+    static final int large[][] = {{0, 1, 2, 3, 4, 5}, {4, 5, 6, 7, 8, 9}, {0, 1, 2, 4, 5, 6}, {4, 5, 6, 8, 9, 10}};
+
+    private final int tuples[][];
+    private final int shifts[][];
+    private final int offsets[];
+    /**
+     * Written by trainers on several threads without locking; a lost update only costs a little learning.
+     */
+    final float weights[];
+
+    NTupleNetwork(int tuples[][]) {
+        this.tuples = tuples;
+        shifts = new int[tuples.length * 8][];
+        offsets = new int[tuples.length * 8];
+        long size = 0;
+        for (int t = 0; t < tuples.length; t++) {
+            for (int symmetry = 0; symmetry < 8; symmetry++) {
+                int cells[] = new int[tuples[t].length];
+                for (int k = 0; k < cells.length; k++) {
+                    int cell = transform(tuples[t][k], symmetry);
+                    cells[k] = BitboardGame.shift(cell / BitboardGame.colomns, cell % BitboardGame.colomns);
+                }
+                shifts[t * 8 + symmetry] = cells;
+                offsets[t * 8 + symmetry] = (int) size;
+            }
+            size += 1L << (4 * tuples[t].length);
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Too many weights");
+            }
+        }
+        weights = new float[(int) size];
+    }
+
+    /**
+     * @return {@code cell} mapped by one of the eight symmetries of the square
+     */
+    private static int transform(int cell, int symmetry) {
+        int last = BitboardGame.rows - 1;
+        int i = cell / BitboardGame.colomns;
+        int j = cell % BitboardGame.colomns;
+        if ((symmetry & 4) != 0) {
+            j = last - j;
+        }
+        for (int k = 0; k < (symmetry & 3); k++) {
+            int rotated = j;
+            j = last - i;
+            i = rotated;
+        }
+        return i * BitboardGame.colomns + j;
+    }
+
+    static NTupleNetwork load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < 12 || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not an n-tuple network: " + path);
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (map.getInt() != magic) {
+                throw new IOException("Not an n-tuple network: " + path);
+            }
+            if (map.getInt() != version) {
+                throw new IOException("Unsupported network version " + map.getInt(4));
+            }
+            int tuples[][] = new int[map.getInt()][];
+            try {
+                for (int t = 0; t < tuples.length; t++) {
+                    tuples[t] = new int[map.getInt()];
+                    for (int k = 0; k < tuples[t].length; k++) {
+                        tuples[t][k] = map.getInt();
+                    }
+                }
+                NTupleNetwork network = new NTupleNetwork(tuples);
+                if (map.remaining() != network.weights.length * 4L) {
+                    throw new IOException("Input logical error");
+                }
+                map.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(network.weights);
+                return network;
+            } catch (RuntimeException e) {
+                throw new IOException("Input logical error", e);
+            }
+        }
+    }
+
+    /**
+     * Copies the weights into a memory-mapped file beside {@code path} and renames it over the target.
+     * Trainers may keep updating meanwhile; the checkpoint then mixes weights from a few moves apart.
+     */
+    void save(Path path) throws IOException {
+        int headerSize = 12;
+        for (int tuple[] : tuples) {
+            headerSize += 4 + 4 * tuple.length;
+        }
+        Path target = path.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                        headerSize + weights.length * 4L);
+                map.putInt(magic).putInt(version).putInt(tuples.length);
+                for (int tuple[] : tuples) {
+                    map.putInt(tuple.length);
+                    for (int cell : tuple) {
+                        map.putInt(cell);
+                    }
+                }
+                map.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().put(weights);
+                map.force();
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    float evaluate(long board) {
+        float value = 0f;
+        for (int t = 0; t < shifts.length; t++) {
+            value += weights[offsets[t] + index(board, shifts[t])];
+        }
+        return value;
+    }
+
+    /**
+     * Adds {@code delta} to every weight {@code board} reads.
+     */
+    void update(long board, float delta) {
+        for (int t = 0; t < shifts.length; t++) {
+            weights[offsets[t] + index(board, shifts[t])] += delta;
+        }
+    }
+
+    /**
+     * @return the number of weights each board reads
+     */
+    int activeWeights() {
+        return shifts.length;
+    }
+
+    private static int index(long board, int cells[]) {
+        int index = 0;
+        for (int k = 0; k < cells.length; k++) {
+            index |= (int) (board >>> cells[k] & 0xF) << (4 * k);
+        }
+        return index;
+    }
+
+    /**
+     * @return the direction with the most points plus value after the slide, or {@link Game#NO_MOVEMENT}
+     */
+    int bestMove(long board) {
+        int best = Game.NO_MOVEMENT;
+        float bestValue = 0f;
+        for (int direction = Game.MOVE_UP; direction <= Game.MOVE_RIGHT; direction++) {
+            long moved = BitboardGame.move(board, direction);
+            if (moved == board) {
+                continue;
+            }
+            float value = BitboardGame.moveScore(board, direction) + evaluate(moved);
+            if (best == Game.NO_MOVEMENT || value > bestValue) {
+                best = direction;
+                bestValue = value;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public int chooseMove(Engine game, RandomGenerator random) {
+        if (game.getRows() != BitboardGame.rows || game.getColomns() != BitboardGame.colomns) {
+            throw new IllegalArgumentException("N-tuple networks only support 4x4 modes");
+        }
+        return bestMove(BitboardGame.pack(game));
+    }
+}
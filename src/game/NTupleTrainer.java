@@ -0,0 +1,187 @@
+package game;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Trains an {@link NTupleNetwork} by self-play with temporal-difference learning on the values of
+ * boards after the slide. Each worker plays whole games greedily with the current weights, spawning
+ * as {@link Game} does, then replays the game backwards, moving the value of each slid board towards
+ * its λ-return: the next move's points plus the blend of the next slid board's value and return.
+ * λ = 0 is plain TD(0). Workers share the weights without locking (Hogwild).
+ * <p>
+ * Usage: {@code java game.NTupleTrainer [games] [threads] [file] [lambda] [rate] [small|large]};
+ * an existing file is trained further, and is checkpointed every {@link #reportGames} games and
+ * once all workers finish.
+ */
+final class NTupleTrainer {
+
+    static final int reportGames = 10000;
+    /**
+     * Moves of one game a worker learns from; longer games forget their first moves.
+     */
+    private static final int recordSize = 1 << 18;
+    private static final int winExponent = 11;
+
+    private final NTupleNetwork network;
+    private final float rate;
+    private final float lambda;
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder score = new LongAdder();
+    private final LongAdder wins = new LongAdder();
+    private long intervalStart;
+
+    /**
+     * @param rate learning rate of a whole board, split evenly over the weights it reads
+     */
+    NTupleTrainer(NTupleNetwork network, float rate, float lambda) {
+        this.network = network;
+        this.rate = rate / network.activeWeights();
+        this.lambda = lambda;
+    }
+
+    public static void main(String args[]) throws IOException, InterruptedException, ExecutionException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Path file = Paths.get(args.length > 2 ? args[2] : "ntuple.dat");
+        float lambda = args.length > 3 ? Float.parseFloat(args[3]) : 0f;
+        float rate = args.length > 4 ? Float.parseFloat(args[4]) : 0.1f;
+        boolean large = args.length <= 5 || !args[5].equals("small");
+
+        NTupleNetwork network = Files.exists(file) ? NTupleNetwork.load(file)
+                : new NTupleNetwork(large ? NTupleNetwork.large : NTupleNetwork.small);
+        new NTupleTrainer(network, rate, lambda).train(games, threads, System.nanoTime(), file);
+    }
+
+    /**
+     * Plays {@code games} training games on {@code threads} workers, reporting and checkpointing to
+     * {@code checkpoint}, which may be null, every {@link #reportGames} games and at the end.
+     */
+    void train(int games, int threads, long seed, Path checkpoint)
+            throws IOException, InterruptedException, ExecutionException {
+        AtomicInteger next = new AtomicInteger();
+        SplittableRandom seeds = new SplittableRandom(seed);
+        intervalStart = System.nanoTime();
+        List<Worker> workers = new ArrayList<>();
+        for (int k = 0; k < threads; k++) {
+            workers.add(new Worker(seeds.split(), next, games, checkpoint));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (Future<Void> worker : executor.invokeAll(workers)) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // every worker has stopped, so the last report and checkpoint hold all of their updates
+        report(games, checkpoint);
+    }
+
+    private synchronized void report(int games, Path checkpoint) throws IOException {
+        long now = System.nanoTime();
+        long played = moves.sumThenReset();
+        long reported = Math.max(1, games % reportGames == 0 ? reportGames : games % reportGames);
+        System.out.printf("games %d: mean score %.0f, 2048 rate %.3f, %.0f moves/sec%n", games,
+                score.sumThenReset() / (double) reported, wins.sumThenReset() / (double) reported,
+                played / ((now - intervalStart) / 1e9));
+        intervalStart = now;
+        if (checkpoint != null) {
+            network.save(checkpoint);
+        }
+    }
+
+    private static int maxExponent(long board) {
+        int max = 0;
+        for (int k = 0; k < 64; k += 4) {
+            max = Math.max(max, (int) (board >>> k) & 0xF);
+        }
+        return max;
+    }
+
+    /**
+     * Claims game numbers until {@code games} are played; keeps its own generator and game record,
+     * a {@link MoveHistory} of slid boards and the points each move gained.
+     */
+    private class Worker implements Callable<Void> {
+
+        private final SplittableRandom random;
+        private final AtomicInteger next;
+        private final int games;
+        private final Path checkpoint;
+        private final MoveHistory record = new MoveHistory(recordSize);
+        private final BitboardGame view = new BitboardGame(GameMode.get(Game.DEFAULT_STYLE), null, 0);
+
+        Worker(SplittableRandom random, AtomicInteger next, int games, Path checkpoint) {
+            this.random = random;
+            this.next = next;
+            this.games = games;
+            this.checkpoint = checkpoint;
+        }
+
+        @Override
+        public Void call() throws IOException {
+            for (int game = next.getAndIncrement(); game < games; game = next.getAndIncrement()) {
+                play();
+                if ((game + 1) % reportGames == 0 && game + 1 < games) {
+                    report(game + 1, checkpoint);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Plays one game, recording every slid board and the points its move gained, then learns from it.
+         */
+        private void play() {
+            long board = spawn(spawn(0L));
+            long points = 0;
+            int n = 0;
+            record.clear();
+            while (true) {
+                int direction = network.bestMove(board);
+                if (direction == Game.NO_MOVEMENT) {
+                    break;
+                }
+                long moved = BitboardGame.move(board, direction);
+                int reward = BitboardGame.moveScore(board, direction);
+                record.push(moved, reward);
+                points += reward;
+                n++;
+                board = spawn(moved);
+            }
+            float target = 0f;
+            for (boolean more = record.size() > 0; more; more = record.back()) {
+                long afterstate = record.board();
+                network.update(afterstate, rate * (target - network.evaluate(afterstate)));
+                target = record.score() + lambda * target + (1 - lambda) * network.evaluate(afterstate);
+            }
+            moves.add(n);
+            score.add(points);
+            if (maxExponent(board) >= winExponent) {
+                wins.increment();
+            }
+        }
+
+        /**
+         * Places a tile from {@link SpawnPolicy#standard}, as {@link Game} spawns.
+         */
+        private long spawn(long board) {
+            view.setBoard(board);
+            int spawn = SpawnPolicy.standard.spawn(view, BitboardGame.emptyCount(board), random);
+            return BitboardGame.place(board, spawn);
+        }
+    }
+}
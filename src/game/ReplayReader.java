@@ -0,0 +1,159 @@
+package game;
+
+import java.io.*;
+import java.util.random.RandomGenerator;
+
+/**
+ * Replays a log written by {@link ReplayWriter} onto a fresh {@link Game}, one move at a time.
+ * Recorded spawns are placed as they were, so no generator is consumed.
+ */
+class ReplayReader implements Closeable {
+
+    private final InputStream input;
+    private final int version;
+    private final int style;
+    private final long seed;
+    private final Game game;
+    private int moves;
+    private int result = Game.NORMAL_STEP;
+
+    ReplayReader(InputStream in) throws IOException {
+        input = in instanceof BufferedInputStream ? in : new BufferedInputStream(in);
+        if (readInt() != ReplayWriter.magic) {
+            throw new IOException("Not a replay log");
+        }
+        version = input.read();
+        if (version < 1 || version > ReplayWriter.version) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+        style = readVarint();
+        seed = readLong();
+        game = new Game(style, RandomGenerator.getDefault(), 0);
+        int cells = game.rows * game.colomns;
+        int tiles = readVarint();
+        if (tiles < 0 || tiles > cells) {
+            throw new IOException("Input logical error");
+        }
+        for (int k = 0; k < tiles; k++) {
+            int cell = readVarint();
+            int value = readVarint();
+            // a cell listed twice is caught as occupied
+            if (cell < 0 || cell >= cells || value < 1 || value > cells + ReplayWriter.maxSpawnValue - 1
+                    || game.getTile(cell / game.colomns, cell % game.colomns) != 0) {
+                throw new IOException("Input logical error");
+            }
+            game.placeTile(cell, value);
+        }
+    }
+
+    ReplayReader(File file) throws IOException {
+        this(new FileInputStream(file));
+    }
+
+    /**
+     * Applies the next recorded move.
+     *
+     * @return false at the end of the log
+     */
+    boolean next() throws IOException {
+        int first = input.read();
+        if (first < 0) {
+            return false;
+        }
+        int record = readVarint(first);
+        int direction = (record & 3) + Game.MOVE_UP;
+        int value = version == 1 ? ((record >>> 2) & 1) + 1 : (record >>> 2) & ReplayWriter.maxSpawnValue;
+        int cell = version == 1 ? record >>> 3 : record >>> 7;
+        if (cell >= game.rows * game.colomns || value == 0) {
+            throw new IOException("Input logical error");
+        }
+        try {
+            result = game.replay(direction, cell, value);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Input logical error", e);
+        }
+        if (result == Game.NO_MOVEMENT) {
+            throw new IOException("Input logical error");
+        }
+        moves++;
+        return true;
+    }
+
+    /**
+     * Replays forward until {@code moveNumber} moves have been applied or the log ends.
+     * The log is read sequentially; seeking backwards needs a new reader.
+     */
+    Game seek(int moveNumber) throws IOException {
+        if (moveNumber < moves) {
+            throw new IOException("Cannot seek backwards");
+        }
+        while (moves < moveNumber && next()) {
+            // keep replaying
+        }
+        return game;
+    }
+
+    Game getGame() {
+        return game;
+    }
+
+    int getMoves() {
+        return moves;
+    }
+
+    /**
+     * @return the result of the last replayed move, as returned by {@link Game#move(int)}
+     */
+    int getResult() {
+        return result;
+    }
+
+    int getStyle() {
+        return style;
+    }
+
+    long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private int readVarint() throws IOException {
+        int first = input.read();
+        if (first < 0) {
+            throw new EOFException();
+        }
+        return readVarint(first);
+    }
+
+    private int readVarint(int first) throws IOException {
+        int value = first & 0x7F;
+        for (int shift = 7; (first & 0x80) != 0; shift += 7) {
+            first = input.read();
+            if (first < 0 || shift > 28) {
+                throw new IOException("Input logical error");
+            }
+            value |= (first & 0x7F) << shift;
+        }
+        return value;
+    }
+
+    private int readInt() throws IOException {
+        int value = 0;
+        for (int k = 0; k < 4; k++) {
+            int b = input.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value = value << 8 | b;
+        }
+        return value;
+    }
+
+    private long readLong() throws IOException {
+        return (long) readInt() << 32 | readInt() & 0xFFFFFFFFL;
+    }
+}
@@ -0,0 +1,112 @@
+package game;
+
+import java.io.*;
+
+/**
+ * Streams a game as a replay log while it is played.
+ * <p>
+ * Layout: magic, version, the style as a varint, the seed as a raw 8-byte big-endian long, then
+ * varints for the number of starting tiles and each starting tile as cell and exponent. Every
+ * move that changes the board follows as one varint
+ * {@code (direction - 1) | spawnValue << 2 | spawnCell << 7}, two bytes on boards of up to 128
+ * cells. Spawned exponents may be anything from 1 to 31, as weighted {@link SpawnPolicy} rules produce.
+ * <p>
+ * Version 1 logs, which {@link ReplayReader} still reads, held only 2 and 4 spawns in
+ * {@code (direction - 1) | (spawnValue - 1) << 2 | spawnCell << 3}.
+ */
+class ReplayWriter implements Closeable, Flushable {
+
+    static final int magic = 0x32303452;
+    static final int version = 2;
+    static final int maxSpawnValue = 31;
+
+    private final OutputStream output;
+    private int moves;
+
+    /**
+     * Writes the header, including the tiles already on {@code game}'s board.
+     *
+     * @param seed the seed the game's generator was created with, kept for re-simulation
+     */
+    ReplayWriter(OutputStream out, Engine game, long seed) throws IOException {
+        output = out instanceof BufferedOutputStream ? out : new BufferedOutputStream(out);
+        writeInt(magic);
+        output.write(version);
+        writeVarint(game.getStyle());
+        writeLong(seed);
+        int tiles = 0;
+        for (int i = 0; i < game.getRows(); i++) {
+            for (int j = 0; j < game.getColomns(); j++) {
+                if (game.getTile(i, j) != 0) {
+                    tiles++;
+                }
+            }
+        }
+        writeVarint(tiles);
+        for (int i = 0; i < game.getRows(); i++) {
+            for (int j = 0; j < game.getColomns(); j++) {
+                if (game.getTile(i, j) != 0) {
+                    writeVarint(i * game.getColomns() + j);
+                    writeVarint(game.getTile(i, j));
+                }
+            }
+        }
+    }
+
+    /**
+     * Plays {@code direction} on {@code game} and records it if the board moved.
+     */
+    int move(Engine game, int direction) throws IOException {
+        int result = game.move(direction);
+        if (result != Game.NO_MOVEMENT) {
+            write(direction, game.getLastSpawnCell(), game.getLastSpawnValue());
+        }
+        return result;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the spawn does not fit the record
+     */
+    void write(int direction, int spawnCell, int spawnValue) throws IOException {
+        if (spawnValue < 1 || spawnValue > maxSpawnValue || spawnCell < 0 || spawnCell >= 1 << 24) {
+            throw new IllegalArgumentException("Spawn not representable in a replay: exponent " + spawnValue
+                    + " in cell " + spawnCell);
+        }
+        writeVarint((direction - Game.MOVE_UP) | spawnValue << 2 | spawnCell << 7);
+        moves++;
+    }
+
+    int getMoves() {
+        return moves;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+
+    private void writeVarint(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.write(value);
+    }
+
+    private void writeInt(int value) throws IOException {
+        output.write(value >>> 24);
+        output.write(value >>> 16);
+        output.write(value >>> 8);
+        output.write(value);
+    }
+
+    private void writeLong(long value) throws IOException {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+}
@@ -0,0 +1,184 @@
+package game;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Headless runner playing many games in parallel on a {@link ForkJoinPool}.
+ * Every game owns its engine, policy and generator; results are merged up the task tree.
+ * <p>
+ * Usage: {@code java game.Simulator [style] [games] [policy] [threads] [seed] [spawn]}
+ */
+public class Simulator {
+
+    private static final int fallbackOrder[] = {Game.MOVE_DOWN, Game.MOVE_LEFT, Game.MOVE_RIGHT, Game.MOVE_UP};
+    private static final RandomGeneratorFactory<?> generators = RandomGeneratorFactory.of("L64X128MixRandom");
+    private static final int maxTiles = 32;
+
+    private final GameMode mode;
+    private final Supplier<MovePolicy> policies;
+    private final long seed;
+    private final int leafGames;
+
+    Simulator(GameMode mode, Supplier<MovePolicy> policies, long seed, int leafGames) {
+        this.mode = mode;
+        this.policies = policies;
+        this.seed = seed;
+        this.leafGames = Math.max(1, leafGames);
+    }
+
+    public static void main(String args[]) {
+        int gameStyle = args.length > 0 ? Integer.parseInt(args[0]) : Game.DEFAULT_STYLE;
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+        String policy = args.length > 2 ? args[2] : "corner";
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+        SpawnPolicy spawn = args.length > 5 ? SpawnPolicy.forName(args[5]) : SpawnPolicy.standard;
+
+        Simulator simulator = new Simulator(GameMode.get(gameStyle).withSpawn(spawn), () -> MovePolicy.forName(policy), seed,
+                games / (threads * 16));
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        Result result = simulator.run(pool, games);
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        System.out.println(result.report(elapsed, threads));
+    }
+
+    Result run(ForkJoinPool pool, int games) {
+        return pool.invoke(new Batch(0, games));
+    }
+
+    /**
+     * Plays game number {@code index} to the end; the same seed and index always replay the same game.
+     */
+    void play(int index, MovePolicy policy, Result result) {
+        long gameSeed = seed + 0x9E3779B97F4A7C15L * index;
+        Engine game = Engine.create(mode, generators.create(gameSeed));
+        RandomGenerator random = generators.create(~gameSeed);
+        long moves = 0;
+        int status;
+        do {
+            status = game.move(policy.chooseMove(game, random));
+            for (int k = 0; status == Game.NO_MOVEMENT && k < fallbackOrder.length; k++) {
+                status = game.move(fallbackOrder[k]);
+            }
+            moves++;
+        } while (status != Game.GAME_OVER);
+
+        int maxTile = 0;
+        for (int i = 0; i < game.getRows(); i++) {
+            for (int j = 0; j < game.getColomns(); j++) {
+                maxTile = Math.max(maxTile, game.getTile(i, j));
+            }
+        }
+        result.add(game.getScore(), moves, game.getHaveWon(), maxTile);
+    }
+
+    private class Batch extends RecursiveTask<Result> {
+
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+
+        private Batch(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Result compute() {
+            if (to - from <= leafGames) {
+                Result result = new Result(to - from);
+                MovePolicy policy = policies.get();
+                for (int i = from; i < to; i++) {
+                    play(i, policy, result);
+                }
+                return result;
+            }
+            int middle = (from + to) >>> 1;
+            Batch left = new Batch(from, middle);
+            left.fork();
+            Result right = new Batch(middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Totals for a range of games, owned by the task that filled it.
+     */
+    static final class Result {
+
+        private long scores[];
+        private int games;
+        private long moves;
+        private long wins;
+        private final long maxTileCounts[] = new long[maxTiles];
+
+        Result(int capacity) {
+            scores = new long[capacity];
+        }
+
+        void add(long score, long gameMoves, boolean won, int maxTile) {
+            if (games == scores.length) {
+                scores = Arrays.copyOf(scores, Math.max(16, games * 2));
+            }
+            scores[games++] = score;
+            moves += gameMoves;
+            if (won) {
+                wins++;
+            }
+            maxTileCounts[maxTile]++;
+        }
+
+        Result merge(Result other) {
+            long merged[] = Arrays.copyOf(scores, games + other.games);
+            System.arraycopy(other.scores, 0, merged, games, other.games);
+            scores = merged;
+            games += other.games;
+            moves += other.moves;
+            wins += other.wins;
+            for (int k = 0; k < maxTiles; k++) {
+                maxTileCounts[k] += other.maxTileCounts[k];
+            }
+            return this;
+        }
+
+        int getGames() {
+            return games;
+        }
+
+        long getMoves() {
+            return moves;
+        }
+
+        long getWins() {
+            return wins;
+        }
+
+        String report(long elapsedNanos, int threads) {
+            long sorted[] = Arrays.copyOf(scores, games);
+            Arrays.sort(sorted);
+            double seconds = elapsedNanos / 1e9;
+            StringBuilder out = new StringBuilder();
+            out.append(String.format("games: %d on %d threads in %.3f s%n", games, threads, seconds));
+            out.append(String.format("games/sec: %.1f%nmoves/sec: %.1f%n", games / seconds, moves / seconds));
+            out.append(String.format("win rate: %.4f%n", games == 0 ? 0.0 : (double) wins / games));
+            if (games > 0) {
+                out.append(String.format("score: min %d, p10 %d, median %d, p90 %d, max %d, mean %.1f%n",
+                        sorted[0], sorted[games / 10], sorted[games / 2], sorted[games * 9 / 10],
+                        sorted[games - 1], Arrays.stream(sorted).average().orElse(0)));
+            }
+            for (int k = 1; k < maxTiles; k++) {
+                if (maxTileCounts[k] > 0) {
+                    out.append(String.format("max tile %d: %.4f%n", 1L << k, (double) maxTileCounts[k] / games));
+                }
+            }
+            return out.toString();
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+
+/**
+ * Depth-limited expectimax over the 4×4 bitboard. Chance nodes place a 2 or a 4 in every
+ * empty cell with the odds used by {@link Game}; their values are cached in a fixed-size
+ * transposition table keyed by the packed board, or rather by its {@link BoardSymmetry#canonical(long)}
+ * image: the heuristic and the odds are the same in every orientation. Searches deepen until the
+ * time budget runs out.
+ * With more than one thread the same search is split into fork-join tasks.
+ */
+final class Solver implements MovePolicy {
+
+    private static final float lostPenalty = 200000f;
+    private static final float monotonicityPower = 4f;
+    private static final float monotonicityWeight = 47f;
+    private static final float sumPower = 3.5f;
+    private static final float sumWeight = 11f;
+    private static final float mergesWeight = 700f;
+    private static final float emptyWeight = 270f;
+    private static final double probabilityCutoff = 1e-4;
+    private static final int deadlineCheckMask = 4095;
+    private static final float rowHeuristic[] = new float[65536];
+
+    static {
+        int line[] = new int[BitboardGame.colomns];
+        for (int row = 0; row < 65536; row++) {
+            for (int j = 0; j < line.length; j++) {
+                line[j] = (row >>> (4 * j)) & 0xF;
+            }
+            float sum = 0f;
+            int empty = 0;
+            int merges = 0;
+            int previous = 0;
+            int counter = 0;
+            for (int rank : line) {
+                sum += (float) Math.pow(rank, sumPower);
+                if (rank == 0) {
+                    empty++;
+                } else {
+                    if (previous == rank) {
+                        counter++;
+                    } else if (counter > 0) {
+                        merges += 1 + counter;
+                        counter = 0;
+                    }
+                    previous = rank;
+                }
+            }
+            if (counter > 0) {
+                merges += 1 + counter;
+            }
+            float left = 0f;
+            float right = 0f;
+            for (int j = 1; j < line.length; j++) {
+                float a = (float) Math.pow(line[j - 1], monotonicityPower);
+                float b = (float) Math.pow(line[j], monotonicityPower);
+                if (line[j - 1] > line[j]) {
+                    left += a - b;
+                } else {
+                    right += b - a;
+                }
+            }
+            rowHeuristic[row] = lostPenalty + emptyWeight * empty + mergesWeight * merges
+                    - monotonicityWeight * Math.min(left, right) - sumWeight * sum;
+        }
+    }
+
+    private final int maxDepth;
+    private final long budgetNanos;
+    private final TranspositionTable table;
+    private final ForkJoinPool pool;
+    private final Search search = new Search();
+    private final LongAdder nodes = new LongAdder();
+    private volatile long deadline;
+    private volatile boolean timedOut;
+
+    Solver() {
+        this(8, 10_000_000L, 20);
+    }
+
+    Solver(int maxDepth, long budgetNanos, int tableBits) {
+        this(maxDepth, budgetNanos, tableBits, 1);
+    }
+
+    /**
+     * @param budgetNanos time allowed per move, or 0 to always search to {@code maxDepth}
+     * @param tableBits   log2 of the number of transposition table entries
+     * @param threads     worker count; above 1 root moves and their spawns are searched
+     *                    as fork-join tasks sharing one table
+     */
+    Solver(int maxDepth, long budgetNanos, int tableBits, int threads) {
+        this.maxDepth = maxDepth;
+        this.budgetNanos = budgetNanos;
+        table = new TranspositionTable(tableBits);
+        pool = threads > 1 ? new ForkJoinPool(threads) : null;
+    }
+
+    /**
+     * Reports how the search scales with threads on positions from one seeded game.
+     * <p>
+     * Usage: {@code java game.Solver [maxThreads] [positions] [depth] [seed]}
+     */
+    public static void main(String args[]) {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int positions = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 2048L;
+
+        long boards[] = new long[positions];
+        BitboardGame game = new BitboardGame(Game.DEFAULT_STYLE, new SplittableRandom(seed));
+        Solver player = new Solver(2, 0L, 16);
+        for (int k = 0; k < positions; k++) {
+            boards[k] = game.getBoard();
+            if (game.move(player.bestMove(game.getBoard())) == Game.GAME_OVER) {
+                game = new BitboardGame(Game.DEFAULT_STYLE, new SplittableRandom(seed + k));
+            }
+        }
+
+        double baseline = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            Solver solver = new Solver(depth, 0L, 22, threads);
+            long start = System.nanoTime();
+            for (long board : boards) {
+                solver.bestMove(board);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            solver.close();
+            if (threads == 1) {
+                baseline = seconds;
+            }
+            System.out.printf("threads %d: %.3f s, %.0f nodes/sec, speedup %.2fx%n",
+                    threads, seconds, solver.getNodes() / seconds, baseline / seconds);
+        }
+    }
+
+    @Override
+    public int chooseMove(Engine game, RandomGenerator random) {
+        if (game.getRows() != BitboardGame.rows || game.getColomns() != BitboardGame.colomns) {
+            throw new IllegalArgumentException("Solver only supports 4x4 modes");
+        }
+        return bestMove(BitboardGame.pack(game));
+    }
+
+    /**
+     * @return the direction with the highest expected value, or {@link Game#NO_MOVEMENT} if nothing moves
+     */
+    int bestMove(long board) {
+        deadline = budgetNanos > 0 ? System.nanoTime() + budgetNanos : Long.MAX_VALUE;
+        timedOut = false;
+        int best = Game.NO_MOVEMENT;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int move = pool == null ? searchRoot(board, depth) : pool.invoke(new Root(board, depth));
+            if (timedOut) {
+                break;
+            }
+            best = move;
+        }
+        nodes.add(search.nodes);
+        search.nodes = 0;
+        if (best == Game.NO_MOVEMENT) {
+            for (int direction = Game.MOVE_UP; direction <= Game.MOVE_RIGHT; direction++) {
+                if (BitboardGame.move(board, direction) != board) {
+                    return direction;
+                }
+            }
+        }
+        return best;
+    }
+
+    long getNodes() {
+        return nodes.sum() + search.nodes;
+    }
+
+    void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private int searchRoot(long board, int depth) {
+        int best = Game.NO_MOVEMENT;
+        float bestValue = -1f;
+        for (int direction = Game.MOVE_UP; direction <= Game.MOVE_RIGHT; direction++) {
+            long moved = BitboardGame.move(board, direction);
+            if (moved == board) {
+                continue;
+            }
+            float value = search.chance(moved, depth - 1, 1.0);
+            if (value > bestValue) {
+                bestValue = value;
+                best = direction;
+            }
+        }
+        return best;
+    }
+
+    private static float evaluate(long board) {
+        long transposed = BitboardGame.transpose(board);
+        float value = 0f;
+        for (int k = 0; k < 64; k += 16) {
+            value += rowHeuristic[(int) ((board >>> k) & 0xFFFF)]
+                    + rowHeuristic[(int) ((transposed >>> k) & 0xFFFF)];
+        }
+        return value;
+    }
+
+    /**
+     * Recursive search state for one thread; everything shared lives in the table.
+     */
+    private class Search {
+
+        private long nodes;
+
+        private float maximize(long board, int depth, double probability) {
+            if ((++nodes & deadlineCheckMask) == 0 && System.nanoTime() > deadline) {
+                timedOut = true;
+            }
+            if (timedOut) {
+                return 0f;
+            }
+            float best = 0f;
+            for (int direction = Game.MOVE_UP; direction <= Game.MOVE_RIGHT; direction++) {
+                long moved = BitboardGame.move(board, direction);
+                if (moved != board) {
+                    best = Math.max(best, chance(moved, depth, probability));
+                }
+            }
+            return best;
+        }
+
+        private float chance(long board, int depth, double probability) {
+            if (depth == 0 || probability < probabilityCutoff) {
+                return evaluate(board);
+            }
+            long key = BoardSymmetry.canonical(board);
+            float cached = table.get(key, depth);
+            if (!Float.isNaN(cached)) {
+                return cached;
+            }
+            int empty = BitboardGame.emptyCount(board);
+            double cellProbability = probability / empty;
+            float sum = 0f;
+            for (int k = 0; k < 64; k += 4) {
+                if (((board >>> k) & 0xF) == 0) {
+                    sum += (float) (1 - Game.probability) * maximize(board | 1L << k, depth - 1,
+                            cellProbability * (1 - Game.probability));
+                    sum += (float) Game.probability * maximize(board | 2L << k, depth - 1,
+                            cellProbability * Game.probability);
+                }
+            }
+            float value = sum / empty;
+            if (!timedOut) {
+                table.put(key, depth, value);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Splits every root move into one task per spawn outcome.
+     */
+    private class Root extends RecursiveTask<Integer> {
+
+        private static final long serialVersionUID = 1L;
+        private final long board;
+        private final int depth;
+
+        private Root(long board, int depth) {
+            this.board = board;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (depth == 1) {
+                return searchRoot(board, depth);
+            }
+            List<Spawn> spawns = new ArrayList<>();
+            for (int direction = Game.MOVE_UP; direction <= Game.MOVE_RIGHT; direction++) {
+                long moved = BitboardGame.move(board, direction);
+                if (moved == board) {
+                    continue;
+                }
+                int empty = BitboardGame.emptyCount(moved);
+                for (int k = 0; k < 64; k += 4) {
+                    if (((moved >>> k) & 0xF) == 0) {
+                        spawns.add(new Spawn(direction, moved | 1L << k, depth - 2,
+                                (1 - Game.probability) / empty));
+                        spawns.add(new Spawn(direction, moved | 2L << k, depth - 2, Game.probability / empty));
+                    }
+                }
+            }
+            float values[] = new float[Game.MOVE_RIGHT + 1];
+            for (Spawn spawn : invokeAll(spawns)) {
+                values[spawn.direction] += (float) spawn.weight * spawn.join();
+            }
+            int best = Game.NO_MOVEMENT;
+            float bestValue = -1f;
+            for (int direction = Game.MOVE_UP; direction <= Game.MOVE_RIGHT; direction++) {
+                if (BitboardGame.move(board, direction) != board && values[direction] > bestValue) {
+                    bestValue = values[direction];
+                    best = direction;
+                }
+            }
+            return best;
+        }
+    }
+
+    private class Spawn extends RecursiveTask<Float> {
+
+        private static final long serialVersionUID = 1L;
+        private final int direction;
+        private final long board;
+        private final int depth;
+        private final double weight;
+
+        private Spawn(int direction, long board, int depth, double weight) {
+            this.direction = direction;
+            this.board = board;
+            this.depth = depth;
+            this.weight = weight;
+        }
+
+        @Override
+        protected Float compute() {
+            Search search = new Search();
+            float value = search.maximize(board, depth, weight);
+            nodes.add(search.nodes);
+            return value;
+        }
+    }
+}
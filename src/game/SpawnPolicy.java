@@ -0,0 +1,159 @@
+package game;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Chooses where the next tile spawns and which tile it is. Engines call it after a move with
+ * the board already slid, and place the tile at the chosen empty cell.
+ */
+@FunctionalInterface
+interface SpawnPolicy {
+
+    /**
+     * Largest exponent a policy may spawn: the most a {@link BitboardGame} cell holds.
+     */
+    int exponentLimit = 15;
+
+    /**
+     * 2 with probability 0.9 and 4 otherwise, on a uniformly chosen empty cell.
+     */
+    SpawnPolicy standard = weighted(new int[]{1, 2}, new double[]{1 - Game.probability, Game.probability});
+
+    /**
+     * Spawns the 2 or 4 with the fewest equal neighbours, the worst tile for the player to merge;
+     * ties go to the first cell and to 2. Ignores {@code random}.
+     */
+    SpawnPolicy adversarial = (game, empty, random) -> {
+        int best = -1;
+        int bestMerges = Integer.MAX_VALUE;
+        int position = 0;
+        for (int i = 0; i < game.getRows(); i++) {
+            for (int j = 0; j < game.getColomns(); j++) {
+                if (game.getTile(i, j) != 0) {
+                    continue;
+                }
+                for (int exponent = 1; exponent <= 2; exponent++) {
+                    int merges = equalNeighbours(game, i, j, exponent);
+                    if (merges < bestMerges) {
+                        bestMerges = merges;
+                        best = spawn(position, exponent);
+                    }
+                }
+                position++;
+            }
+        }
+        return best;
+    };
+
+    /**
+     * @param name "standard", "adversarial", or "weighted:" followed by comma-separated
+     *             exponent=weight pairs such as {@code weighted:1=8,2=1,3=1}
+     */
+    static SpawnPolicy forName(String name) {
+        if (name.startsWith("weighted:")) {
+            String pairs[] = name.substring("weighted:".length()).split(",");
+            int exponents[] = new int[pairs.length];
+            double weights[] = new double[pairs.length];
+            for (int k = 0; k < pairs.length; k++) {
+                String pair[] = pairs[k].split("=", 2);
+                if (pair.length != 2) {
+                    throw new IllegalArgumentException("Expected exponent=weight: " + pairs[k]);
+                }
+                exponents[k] = Integer.parseInt(pair[0].trim());
+                weights[k] = Double.parseDouble(pair[1].trim());
+            }
+            return weighted(exponents, weights);
+        }
+        switch (name) {
+            case "standard":
+                return standard;
+            case "adversarial":
+                return adversarial;
+            default:
+                throw new IllegalArgumentException("Unknown spawn policy: " + name);
+        }
+    }
+
+    /**
+     * Picks tiles with the given relative weights through an alias table: one random draw per spawn.
+     */
+    static SpawnPolicy weighted(int exponents[], double weights[]) {
+        return new WeightedSpawn(exponents, weights);
+    }
+
+    /**
+     * Replays {@code spawns}, each made with {@link #spawn(int, int)}, in a loop; for tests.
+     * The position is taken modulo the number of empty cells. The policy keeps its place in
+     * the loop, so it serves one game on one thread.
+     */
+    static SpawnPolicy sequence(int... spawns) {
+        int max = 1;
+        for (int spawn : spawns) {
+            if (exponent(spawn) < 1 || exponent(spawn) > exponentLimit) {
+                throw new IllegalArgumentException("Spawn exponent out of range: " + exponent(spawn));
+            }
+            max = Math.max(max, exponent(spawn));
+        }
+        int largest = max;
+        return new SpawnPolicy() {
+            private int next;
+
+            @Override
+            public int spawn(Engine game, int empty, RandomGenerator random) {
+                int spawn = spawns[next];
+                next = (next + 1) % spawns.length;
+                return SpawnPolicy.spawn(position(spawn) % empty, exponent(spawn));
+            }
+
+            @Override
+            public int maxExponent() {
+                return largest;
+            }
+        };
+    }
+
+    static int spawn(int position, int exponent) {
+        return position | exponent << 16;
+    }
+
+    /**
+     * @return index of the chosen cell among the empty cells in row-major order
+     */
+    static int position(int spawn) {
+        return spawn & 0xFFFF;
+    }
+
+    static int exponent(int spawn) {
+        return spawn >>> 16;
+    }
+
+    private static int equalNeighbours(Engine game, int i, int j, int exponent) {
+        int count = 0;
+        if (i > 0 && game.getTile(i - 1, j) == exponent) {
+            count++;
+        }
+        if (i < game.getRows() - 1 && game.getTile(i + 1, j) == exponent) {
+            count++;
+        }
+        if (j > 0 && game.getTile(i, j - 1) == exponent) {
+            count++;
+        }
+        if (j < game.getColomns() - 1 && game.getTile(i, j + 1) == exponent) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @param empty number of empty cells, at least 1
+     * @return the tile to place, made with {@link #spawn(int, int)}
+     */
+    int spawn(Engine game, int empty, RandomGenerator random);
+
+    /**
+     * @return the largest exponent this policy spawns; policies spawning more than a 4 override it
+     */
+    default int maxExponent() {
+        return 2;
+    }
+}
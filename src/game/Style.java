@@ -1,9 +1,13 @@
 package game;
 
 import java.awt.*;
+import java.util.Arrays;
 
+/**
+ * Presentation of each game mode; the rules in {@link Game} never touch this class.
+ */
 final class Style {
-    static final int styleNum = 3;
+    private static final String suffixes[] = {"M", "G", "T", "P", "E", "Z"};
     static final Font defaultFont = new Font(Font.DIALOG, Font.PLAIN,
             24);
     static final Font chineseFont = new Font("宋体", Font.BOLD, 24);
@@ -11,74 +15,131 @@ final class Style {
             20);
 
     static final TileStyle defaultStyle[] = {
-            new TileStyle("", Color.black, Color.white, 0),
-            new TileStyle("2", Color.black, new Color(0xffffe0), 2),
-            new TileStyle("4", Color.black, new Color(0xfffacd), 4),
-            new TileStyle("8", Color.black, new Color(0xfff68f), 8),
-            new TileStyle("16", Color.black, new Color(0xffec8b), 16),
-            new TileStyle("32", Color.black, new Color(0xffd700), 32),
-            new TileStyle("64", Color.black, new Color(0xffc125), 64),
-            new TileStyle("128", Color.black, new Color(0xffa500), 128),
-            new TileStyle("256", Color.black, new Color(0xff8c00), 256),
-            new TileStyle("512", Color.black, new Color(0xff7f24), 512),
-            new TileStyle("1024", Color.black, new Color(0xff7f00), 1024),
-            new TileStyle("2048", Color.white, Color.red, 2048),
-            new TileStyle("4096", Color.white, Color.red, 4096),
-            new TileStyle("8192", Color.white, Color.black, 8192),
-            new TileStyle("16384", Color.white, Color.black, 16384),
-            new TileStyle("32768", Color.white, Color.black, 32768),
-            new TileStyle("65536", Color.white, Color.black, 65536),
-            new TileStyle("131072", Color.white, Color.black, 131072),};
+            new TileStyle("", Color.black, Color.white),
+            new TileStyle("2", Color.black, new Color(0xffffe0)),
+            new TileStyle("4", Color.black, new Color(0xfffacd)),
+            new TileStyle("8", Color.black, new Color(0xfff68f)),
+            new TileStyle("16", Color.black, new Color(0xffec8b)),
+            new TileStyle("32", Color.black, new Color(0xffd700)),
+            new TileStyle("64", Color.black, new Color(0xffc125)),
+            new TileStyle("128", Color.black, new Color(0xffa500)),
+            new TileStyle("256", Color.black, new Color(0xff8c00)),
+            new TileStyle("512", Color.black, new Color(0xff7f24)),
+            new TileStyle("1024", Color.black, new Color(0xff7f00)),
+            new TileStyle("2048", Color.white, Color.red),
+            new TileStyle("4096", Color.white, Color.red),
+            new TileStyle("8192", Color.white, Color.black),
+            new TileStyle("16384", Color.white, Color.black),
+            new TileStyle("32768", Color.white, Color.black),
+            new TileStyle("65536", Color.white, Color.black),
+            new TileStyle("131072", Color.white, Color.black),};
 
     static final TileStyle dynastyStyle[] = {
-            new TileStyle("", Color.black, Color.white, 0),
-            new TileStyle("夏", Color.black, new Color(0xffffe0), 2),
-            new TileStyle("商", Color.black, new Color(0xfffacd), 4),
-            new TileStyle("周", Color.black, new Color(0xfff68f), 8),
-            new TileStyle("汉", Color.black, new Color(0xffec8b), 16),
-            new TileStyle("唐", Color.black, new Color(0xffd700), 32),
-            new TileStyle("宋", Color.black, new Color(0xffc125), 64),
-            new TileStyle("元", Color.black, new Color(0xffa500), 128),
-            new TileStyle("明", Color.black, new Color(0xff8c00), 256),
-            new TileStyle("清", Color.black, new Color(0xff7f24), 512),
-            new TileStyle("民国", Color.white, Color.blue, 1024),
-            new TileStyle("天朝", Color.white, Color.red, 2048),
-            new TileStyle("初级", Color.white, Color.red, 4096),
-            new TileStyle("中级", Color.white, Color.red, 8192),
-            new TileStyle("高级", Color.white, Color.red, 16384),
-            new TileStyle("共产", Color.white, Color.red, 32768),
-            new TileStyle("民主", Color.white, Color.blue, 65536),
-            new TileStyle("理想", Color.white, Color.black, 131072),};
+            new TileStyle("", Color.black, Color.white),
+            new TileStyle("夏", Color.black, new Color(0xffffe0)),
+            new TileStyle("商", Color.black, new Color(0xfffacd)),
+            new TileStyle("周", Color.black, new Color(0xfff68f)),
+            new TileStyle("汉", Color.black, new Color(0xffec8b)),
+            new TileStyle("唐", Color.black, new Color(0xffd700)),
+            new TileStyle("宋", Color.black, new Color(0xffc125)),
+            new TileStyle("元", Color.black, new Color(0xffa500)),
+            new TileStyle("明", Color.black, new Color(0xff8c00)),
+            new TileStyle("清", Color.black, new Color(0xff7f24)),
+            new TileStyle("民国", Color.white, Color.blue),
+            new TileStyle("天朝", Color.white, Color.red),
+            new TileStyle("初级", Color.white, Color.red),
+            new TileStyle("中级", Color.white, Color.red),
+            new TileStyle("高级", Color.white, Color.red),
+            new TileStyle("共产", Color.white, Color.red),
+            new TileStyle("民主", Color.white, Color.blue),
+            new TileStyle("理想", Color.white, Color.black),};
 
     /**
      * 5×5模式格子样式
      */
     static final TileStyle fiveStyle[] = {
-            new TileStyle("", Color.black, Color.white, 0),
-            new TileStyle("2", Color.black, new Color(0xffffe0), 2),
-            new TileStyle("4", Color.black, new Color(0xfffacd), 4),
-            new TileStyle("8", Color.black, new Color(0xfff68f), 8),
-            new TileStyle("16", Color.black, new Color(0xffec8b), 16),
-            new TileStyle("32", Color.black, new Color(0xffd700), 32),
-            new TileStyle("64", Color.black, new Color(0xffc125), 64),
-            new TileStyle("128", Color.black, new Color(0xffa500), 128),
-            new TileStyle("256", Color.black, new Color(0xff8c00), 256),
-            new TileStyle("512", Color.black, new Color(0xff7f24), 512),
-            new TileStyle("1024", Color.black, new Color(0xff7f00), 1024),
-            new TileStyle("2048", Color.black, new Color(0xff4500), 2048),
-            new TileStyle("4096", Color.black, new Color(0xff4040), 4096),
-            new TileStyle("8192", Color.black, new Color(0xff3030), 8192),
-            new TileStyle("16384", Color.white, Color.red, 16384),
-            new TileStyle("32768", Color.white, Color.red, 32768),
-            new TileStyle("65536", Color.white, Color.black, 65536),
-            new TileStyle("131072", Color.white, Color.black, 131072),
-            new TileStyle("262144", Color.white, Color.black, 262144),
-            new TileStyle("524288", Color.white, Color.black, 524288),
-            new TileStyle("1.05M", Color.white, Color.black, 1048576),
-            new TileStyle("2.10M", Color.white, Color.black, 2097152),
-            new TileStyle("4.19M", Color.white, Color.black, 4194304),
-            new TileStyle("8.39M", Color.white, Color.black, 8388608),
-            new TileStyle("16.8M", Color.white, Color.black, 16777216),
-            new TileStyle("33.6M", Color.white, Color.black, 33554432),
-            new TileStyle("67.1M", Color.white, Color.black, 67108864),};
+            new TileStyle("", Color.black, Color.white),
+            new TileStyle("2", Color.black, new Color(0xffffe0)),
+            new TileStyle("4", Color.black, new Color(0xfffacd)),
+            new TileStyle("8", Color.black, new Color(0xfff68f)),
+            new TileStyle("16", Color.black, new Color(0xffec8b)),
+            new TileStyle("32", Color.black, new Color(0xffd700)),
+            new TileStyle("64", Color.black, new Color(0xffc125)),
+            new TileStyle("128", Color.black, new Color(0xffa500)),
+            new TileStyle("256", Color.black, new Color(0xff8c00)),
+            new TileStyle("512", Color.black, new Color(0xff7f24)),
+            new TileStyle("1024", Color.black, new Color(0xff7f00)),
+            new TileStyle("2048", Color.black, new Color(0xff4500)),
+            new TileStyle("4096", Color.black, new Color(0xff4040)),
+            new TileStyle("8192", Color.black, new Color(0xff3030)),
+            new TileStyle("16384", Color.white, Color.red),
+            new TileStyle("32768", Color.white, Color.red),
+            new TileStyle("65536", Color.white, Color.black),
+            new TileStyle("131072", Color.white, Color.black),
+            new TileStyle("262144", Color.white, Color.black),
+            new TileStyle("524288", Color.white, Color.black),
+            new TileStyle("1.05M", Color.white, Color.black),
+            new TileStyle("2.10M", Color.white, Color.black),
+            new TileStyle("4.19M", Color.white, Color.black),
+            new TileStyle("8.39M", Color.white, Color.black),
+            new TileStyle("16.8M", Color.white, Color.black),
+            new TileStyle("33.6M", Color.white, Color.black),
+            new TileStyle("67.1M", Color.white, Color.black),};
+
+    /**
+     * @return the mode's tile styles, extended with plain black tiles up to its largest possible tile
+     */
+    static TileStyle[] tiles(int gameStyle) {
+        GameMode mode = GameMode.get(gameStyle);
+        TileStyle base[];
+        switch (mode.tileStyle) {
+            case GameMode.dynastyTiles:
+                base = dynastyStyle;
+                break;
+            case GameMode.fiveTiles:
+                base = fiveStyle;
+                break;
+            default:
+                base = defaultStyle;
+        }
+        if (base.length > mode.maxExponent()) {
+            return base;
+        }
+        TileStyle extended[] = Arrays.copyOf(base, mode.maxExponent() + 1);
+        for (int exponent = base.length; exponent < extended.length; exponent++) {
+            extended[exponent] = new TileStyle(label(exponent), Color.white, Color.black);
+        }
+        return extended;
+    }
+
+    static Font font(int gameStyle) {
+        GameMode mode = GameMode.get(gameStyle);
+        if (mode.tileStyle == GameMode.dynastyTiles) {
+            return chineseFont;
+        }
+        return mode.colomns > 4 ? smallFont : defaultFont;
+    }
+
+    static String hint(int gameStyle) {
+        GameMode mode = GameMode.get(gameStyle);
+        if (mode.tileStyle == GameMode.dynastyTiles) {
+            return "Try to establish communism!";
+        }
+        return "Try to reach " + label(mode.winNum) + "!";
+    }
+
+    /**
+     * Value of a tile, shortened to three digits and a suffix from 2^20 on, as in {@link #fiveStyle}.
+     */
+    private static String label(int exponent) {
+        if (exponent < 20) {
+            return Integer.toString(1 << exponent);
+        }
+        double value = Math.scalb(1.0, exponent) / 1e6;
+        int k = 0;
+        for (; value >= 999.5 && k < suffixes.length - 1; k++) {
+            value /= 1000;
+        }
+        return String.format("%.3g", value) + suffixes[k];
+    }
 }
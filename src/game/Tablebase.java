@@ -0,0 +1,171 @@
+package game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Read-only view of a table written by {@link TablebaseBuilder}. The file is memory-mapped once and
+ * any number of threads may share one instance. A lookup binary-searches a small on-heap copy of
+ * every {@code fenceStride}-th board, then the few mapped pages between two fences.
+ */
+final class Tablebase implements MovePolicy {
+
+    private static final int fenceStride = 4096;
+
+    private final GameMode mode;
+    private final int cap;
+    private final int count;
+    private final boolean symmetric;
+    private final LongBuffer boards;
+    private final FloatBuffer values;
+    private final ByteBuffer moves;
+    private final long fences[];
+
+    /**
+     * @param symmetric whether the file holds one board per symmetry class, as version 2 does for square boards
+     */
+    private Tablebase(GameMode mode, int cap, int count, boolean symmetric, MappedByteBuffer map) {
+        this.mode = mode;
+        this.cap = cap;
+        this.count = count;
+        this.symmetric = symmetric;
+        boards = map.slice(TablebaseBuilder.headerSize, count * 8).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        values = map.slice(TablebaseBuilder.headerSize + count * 8, count * 4).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+        moves = map.slice(TablebaseBuilder.headerSize + count * 12, count);
+        fences = new long[(count + fenceStride - 1) / fenceStride];
+        for (int k = 0; k < fences.length; k++) {
+            fences[k] = boards.get(k * fenceStride);
+        }
+    }
+
+    static Tablebase open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < TablebaseBuilder.headerSize || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a tablebase: " + path);
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (map.getInt(0) != TablebaseBuilder.magic) {
+                throw new IOException("Not a tablebase: " + path);
+            }
+            int version = map.getInt(4);
+            if (version < 1 || version > TablebaseBuilder.version) {
+                throw new IOException("Unsupported tablebase version " + version);
+            }
+            long count = map.getLong(16);
+            if (count < 0 || TablebaseBuilder.headerSize + count * TablebaseBuilder.entrySize != size) {
+                throw new IOException("Input logical error");
+            }
+            GameMode mode = GameMode.get(map.getInt(8));
+            return new Tablebase(mode, map.getInt(12), (int) count, version >= 2 && mode.rows == mode.colomns, map);
+        }
+    }
+
+    /**
+     * @return the file name {@link TablebaseBuilder} writes for {@code mode} by default
+     */
+    static String defaultName(GameMode mode) {
+        return "tablebase-" + mode.id + ".dat";
+    }
+
+    GameMode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return exponent of the tile whose odds the table holds
+     */
+    int getCap() {
+        return cap;
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * @return the probability of reaching the cap tile from {@code board} with the player to move,
+     * or NaN if the board is not in the table
+     */
+    float winProbability(long board) {
+        int index = find(symmetric ? BoardSymmetry.canonical(board, mode.rows) : board);
+        return index < 0 ? Float.NaN : values.get(index);
+    }
+
+    /**
+     * @return the move that maximizes {@link #winProbability(long)}, or {@link Game#NO_MOVEMENT}
+     * if the board is not in the table or nothing moves
+     */
+    int bestMove(long board) {
+        if (!symmetric) {
+            int index = find(board);
+            return index < 0 ? Game.NO_MOVEMENT : moves.get(index);
+        }
+        int symmetry = BoardSymmetry.canonicalSymmetry(board, mode.rows);
+        int index = find(BoardSymmetry.apply(board, symmetry, mode.rows));
+        int move = index < 0 ? Game.NO_MOVEMENT : moves.get(index);
+        return move == Game.NO_MOVEMENT ? move : BoardSymmetry.direction(BoardSymmetry.inverse(symmetry), move);
+    }
+
+    /**
+     * @return {@link Game#NO_MOVEMENT} once the game is past the table's cap
+     */
+    @Override
+    public int chooseMove(Engine game, RandomGenerator random) {
+        if (game.getRows() != mode.rows || game.getColomns() != mode.colomns) {
+            throw new IllegalArgumentException("Tablebase is for " + mode.rows + "x" + mode.colomns + " boards");
+        }
+        for (int i = 0; i < game.getRows(); i++) {
+            for (int j = 0; j < game.getColomns(); j++) {
+                if (game.getTile(i, j) >= cap) {
+                    return Game.NO_MOVEMENT;
+                }
+            }
+        }
+        return bestMove(BitboardGame.pack(game));
+    }
+
+    /**
+     * @return a policy asking this table first and {@code fallback}, which may be null, for boards it lacks
+     */
+    MovePolicy orElse(MovePolicy fallback) {
+        return (game, random) -> {
+            int move = chooseMove(game, random);
+            return move != Game.NO_MOVEMENT || fallback == null ? move : fallback.chooseMove(game, random);
+        };
+    }
+
+    private int find(long board) {
+        int block = Arrays.binarySearch(fences, board);
+        if (block >= 0) {
+            return block * fenceStride;
+        }
+        block = -block - 2;
+        if (block < 0) {
+            return -1;
+        }
+        int low = block * fenceStride + 1;
+        int high = Math.min(count, low + fenceStride - 1) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long key = boards.get(middle);
+            if (key < board) {
+                low = middle + 1;
+            } else if (key > board) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+}
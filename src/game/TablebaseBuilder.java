@@ -0,0 +1,440 @@
+package game;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Solves every position of a small board exactly and writes the result as a {@link Tablebase}.
+ * <p>
+ * A position is a bitboard after the spawn, with the player to move and every tile below exponent
+ * {@code cap}. Its value is the probability of making a {@code cap} tile when every move maximizes
+ * it and tiles spawn as in {@link SpawnPolicy#standard}. A move keeps the tile sum and a spawn adds
+ * 2 or 4, so positions fall into layers by sum: layers are enumerated upwards from the starting
+ * boards and solved downwards, each from the two above it, in parallel within a layer.
+ * <p>
+ * Square boards are stored once per class of rotations and reflections, as their
+ * {@link BoardSymmetry#canonical(long, int)} image, with the best move in that orientation.
+ * <p>
+ * Layout: magic, version, mode id, cap and count, then the boards in ascending order, their values
+ * as floats and their best moves as bytes ({@link Game#NO_MOVEMENT} where nothing moves). Boards and
+ * values are little-endian, the byte order the mapped lookups read fastest on common hardware.
+ * <p>
+ * Usage: {@code java game.TablebaseBuilder [style] [cap] [file] [threads]}
+ */
+final class TablebaseBuilder {
+
+    static final int magic = 0x32303454;
+    static final int version = 2;
+    static final int headerSize = 24;
+    static final int entrySize = 8 + 4 + 1;
+    private static final int leafSize = 1 << 12;
+
+    private final GameMode mode;
+    private final int cap;
+    private final ForkJoinPool pool;
+    private final long cells;
+    private final boolean symmetric;
+    private final long layers[][];
+    private final float values[][];
+    private final byte moves[][];
+
+    /**
+     * @param cap exponent of the target tile, from 3 to 15
+     */
+    TablebaseBuilder(GameMode mode, int cap, ForkJoinPool pool) {
+        if (!BitboardGame.fits(mode)) {
+            throw new IllegalArgumentException("Tablebases only support boards up to 4x4");
+        }
+        if (cap < 3 || cap > 15) {
+            throw new IllegalArgumentException("Cap out of range: " + cap);
+        }
+        this.mode = mode;
+        this.cap = cap;
+        this.pool = pool;
+        long mask = 0L;
+        for (int i = 0; i < mode.rows; i++) {
+            for (int j = 0; j < mode.colomns; j++) {
+                mask |= 0xFL << BitboardGame.shift(i, j);
+            }
+        }
+        cells = mask;
+        symmetric = mode.rows == mode.colomns;
+        int size = mode.rows * mode.colomns * (1 << (cap - 2)) + 3;
+        layers = new long[size][];
+        values = new float[size][];
+        moves = new byte[size][];
+    }
+
+    public static void main(String args[]) throws IOException {
+        int gameStyle = args.length > 0 ? Integer.parseInt(args[0]) : Game.THREE_THREE;
+        GameMode mode = GameMode.get(gameStyle);
+        int cap = args.length > 1 ? Integer.parseInt(args[1]) : mode.winNum;
+        Path file = Paths.get(args.length > 2 ? args[2] : Tablebase.defaultName(mode));
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        TablebaseBuilder builder = new TablebaseBuilder(mode, cap, pool);
+        builder.solve();
+        long positions = builder.write(file);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+        System.out.printf("%d positions in %.1f s, win probability from the start %.6f, written to %s%n",
+                positions, seconds, builder.startValue(), file);
+    }
+
+    /**
+     * Enumerates every position reachable from a starting board, then solves them from the largest
+     * tile sum down.
+     */
+    void solve() {
+        int size = mode.rows * mode.colomns;
+        for (int first = 0; first < size; first++) {
+            for (int second = first + 1; second < size; second++) {
+                for (long a = 1; a <= 2; a++) {
+                    for (long b = 1; b <= 2; b++) {
+                        add(canonical(a << cell(first) | b << cell(second)));
+                    }
+                }
+            }
+        }
+        for (int layer = 0; layer < layers.length; layer++) {
+            long boards[] = layers[layer];
+            if (boards == null) {
+                continue;
+            }
+            long children[] = pool.invoke(new Expand(boards, 0, boards.length));
+            if (children.length == 0) {
+                continue;
+            }
+            int twos = 0;
+            for (long child : children) {
+                if (sum(child) / 2 == layer + 1) {
+                    twos++;
+                }
+            }
+            long up[] = new long[twos];
+            long upTwice[] = new long[children.length - twos];
+            for (int k = 0, u = 0, v = 0; k < children.length; k++) {
+                if (sum(children[k]) / 2 == layer + 1) {
+                    up[u++] = children[k];
+                } else {
+                    upTwice[v++] = children[k];
+                }
+            }
+            layers[layer + 1] = union(layers[layer + 1], up);
+            layers[layer + 2] = union(layers[layer + 2], upTwice);
+        }
+        for (int layer = layers.length - 1; layer >= 0; layer--) {
+            if (layers[layer] != null) {
+                values[layer] = new float[layers[layer].length];
+                moves[layer] = new byte[layers[layer].length];
+                pool.invoke(new Solve(layer, 0, layers[layer].length));
+            }
+        }
+    }
+
+    /**
+     * @return the win probability of a new game, averaged over its two starting tiles
+     */
+    double startValue() {
+        int size = mode.rows * mode.colomns;
+        double expected = 0;
+        for (int first = 0; first < size; first++) {
+            for (int second = 0; second < size; second++) {
+                if (first == second) {
+                    continue;
+                }
+                for (long a = 1; a <= 2; a++) {
+                    for (long b = 1; b <= 2; b++) {
+                        double odds = (a == 1 ? 1 - Game.probability : Game.probability)
+                                * (b == 1 ? 1 - Game.probability : Game.probability) / (size * (size - 1));
+                        expected += odds * value(canonical(a << cell(first) | b << cell(second)));
+                    }
+                }
+            }
+        }
+        return expected;
+    }
+
+    /**
+     * Writes the solved positions beside {@code file} and renames them over it.
+     *
+     * @return the number of positions
+     */
+    long write(Path file) throws IOException {
+        long count = 0;
+        for (long boards[] : layers) {
+            count += boards == null ? 0 : boards.length;
+        }
+        if (headerSize + count * entrySize > Integer.MAX_VALUE) {
+            throw new IOException("Tablebase too large to map: " + count + " positions");
+        }
+        long boards[] = new long[(int) count];
+        int filled = 0;
+        for (long layer[] : layers) {
+            if (layer != null) {
+                System.arraycopy(layer, 0, boards, filled, layer.length);
+                filled += layer.length;
+            }
+        }
+        Arrays.parallelSort(boards);
+        float boardValues[] = new float[boards.length];
+        byte boardMoves[] = new byte[boards.length];
+        pool.invoke(new Gather(boards, boardValues, boardMoves, 0, boards.length));
+
+        Path target = file.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, headerSize + count * entrySize);
+                map.putInt(magic).putInt(version).putInt(mode.id).putInt(cap).putLong(count);
+                map.slice(headerSize, boards.length * 8).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().put(boards);
+                map.slice(headerSize + boards.length * 8, boards.length * 4).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer()
+                        .put(boardValues);
+                map.position(headerSize + boards.length * 12);
+                map.put(boardMoves);
+                map.force();
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return count;
+    }
+
+    private void add(long board) {
+        int layer = sum(board) / 2;
+        layers[layer] = union(layers[layer], new long[]{board});
+    }
+
+    /**
+     * @return the stored form of {@code board}
+     */
+    private long canonical(long board) {
+        return symmetric ? BoardSymmetry.canonical(board, mode.rows) : board;
+    }
+
+    /**
+     * @param board a stored form, in a layer already solved
+     */
+    private float value(long board) {
+        int layer = sum(board) / 2;
+        return values[layer][Arrays.binarySearch(layers[layer], board)];
+    }
+
+    private int cell(int index) {
+        return BitboardGame.shift(index / mode.colomns, index % mode.colomns);
+    }
+
+    private static int sum(long board) {
+        int sum = 0;
+        for (int k = 0; k < 64; k += 4) {
+            int exponent = (int) (board >>> k) & 0xF;
+            if (exponent != 0) {
+                sum += 1 << exponent;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @return the sorted distinct boards of two sorted distinct arrays, either of which may be null
+     */
+    private static long[] union(long a[], long b[]) {
+        if (a == null || a.length == 0) {
+            return b;
+        }
+        if (b == null || b.length == 0) {
+            return a;
+        }
+        long merged[] = new long[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                merged[n++] = a[i++];
+            } else if (a[i] > b[j]) {
+                merged[n++] = b[j++];
+            } else {
+                merged[n++] = a[i++];
+                j++;
+            }
+        }
+        while (i < a.length) {
+            merged[n++] = a[i++];
+        }
+        while (j < b.length) {
+            merged[n++] = b[j++];
+        }
+        return n == merged.length ? merged : Arrays.copyOf(merged, n);
+    }
+
+    /**
+     * Collects the positions one move and one spawn after {@code boards[from]} to {@code boards[to - 1]}.
+     */
+    private class Expand extends RecursiveTask<long[]> {
+
+        private static final long serialVersionUID = 1L;
+        private final long boards[];
+        private final int from;
+        private final int to;
+
+        Expand(long boards[], int from, int to) {
+            this.boards = boards;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from > leafSize) {
+                int middle = (from + to) >>> 1;
+                Expand left = new Expand(boards, from, middle);
+                left.fork();
+                long right[] = new Expand(boards, middle, to).compute();
+                return union(left.join(), right);
+            }
+            long children[] = new long[64];
+            int n = 0;
+            for (int k = from; k < to; k++) {
+                long board = boards[k];
+                for (int direction = Game.MOVE_UP; direction <= Game.MOVE_RIGHT; direction++) {
+                    long moved = BitboardGame.move(board, direction, mode.rows, mode.colomns);
+                    if (moved == board || BitboardGame.containsExponent(moved, cap)) {
+                        continue;
+                    }
+                    for (int shift = 0; shift < 64; shift += 4) {
+                        if (((cells >>> shift) & 0xF) != 0 && ((moved >>> shift) & 0xF) == 0) {
+                            if (n + 2 > children.length) {
+                                children = Arrays.copyOf(children, children.length * 2);
+                            }
+                            children[n++] = canonical(moved | 1L << shift);
+                            children[n++] = canonical(moved | 2L << shift);
+                        }
+                    }
+                }
+            }
+            Arrays.sort(children, 0, n);
+            int distinct = 0;
+            for (int k = 0; k < n; k++) {
+                if (distinct == 0 || children[k] != children[distinct - 1]) {
+                    children[distinct++] = children[k];
+                }
+            }
+            return Arrays.copyOf(children, distinct);
+        }
+    }
+
+    /**
+     * Solves positions {@code from} to {@code to - 1} of one layer; the two layers above are solved.
+     */
+    private class Solve extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final int layer;
+        private final int from;
+        private final int to;
+
+        Solve(int layer, int from, int to) {
+            this.layer = layer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > leafSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Solve(layer, from, middle), new Solve(layer, middle, to));
+                return;
+            }
+            long boards[] = layers[layer];
+            for (int k = from; k < to; k++) {
+                long board = boards[k];
+                double best = 0;
+                int bestMove = Game.NO_MOVEMENT;
+                for (int direction = Game.MOVE_UP; direction <= Game.MOVE_RIGHT; direction++) {
+                    long moved = BitboardGame.move(board, direction, mode.rows, mode.colomns);
+                    if (moved == board) {
+                        continue;
+                    }
+                    double value = BitboardGame.containsExponent(moved, cap) ? 1 : spawns(moved);
+                    if (bestMove == Game.NO_MOVEMENT || value > best) {
+                        best = value;
+                        bestMove = direction;
+                    }
+                }
+                values[layer][k] = (float) best;
+                moves[layer][k] = (byte) bestMove;
+            }
+        }
+
+        private double spawns(long moved) {
+            double sum = 0;
+            int empty = 0;
+            for (int shift = 0; shift < 64; shift += 4) {
+                if (((cells >>> shift) & 0xF) != 0 && ((moved >>> shift) & 0xF) == 0) {
+                    sum += (1 - Game.probability) * value(canonical(moved | 1L << shift))
+                            + Game.probability * value(canonical(moved | 2L << shift));
+                    empty++;
+                }
+            }
+            return sum / empty;
+        }
+    }
+
+    /**
+     * Looks up the value and best move of sorted boards {@code from} to {@code to - 1} in their layers.
+     */
+    private class Gather extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final long boards[];
+        private final float boardValues[];
+        private final byte boardMoves[];
+        private final int from;
+        private final int to;
+
+        Gather(long boards[], float boardValues[], byte boardMoves[], int from, int to) {
+            this.boards = boards;
+            this.boardValues = boardValues;
+            this.boardMoves = boardMoves;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > leafSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Gather(boards, boardValues, boardMoves, from, middle),
+                        new Gather(boards, boardValues, boardMoves, middle, to));
+                return;
+            }
+            for (int k = from; k < to; k++) {
+                int layer = sum(boards[k]) / 2;
+                int index = Arrays.binarySearch(layers[layer], boards[k]);
+                boardValues[k] = values[layer][index];
+                boardMoves[k] = moves[layer][index];
+            }
+        }
+    }
+}
@@ -7,12 +7,10 @@ class TileStyle {
     String label;
     Color txColor;
     Color bgColor;
-    int score;
 
-    TileStyle(String label, Color txcolor, Color bgcolor, int score) {
+    TileStyle(String label, Color txcolor, Color bgcolor) {
         this.label = label;
         this.txColor = txcolor;
         this.bgColor = bgcolor;
-        this.score = score;
     }
 }
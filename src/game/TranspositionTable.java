@@ -0,0 +1,51 @@
+package game;
+
+/**
+ * Fixed-size, always-replace cache of search values keyed by a packed board.
+ * Each slot stores {@code key ^ data} next to {@code data}, so readers on other threads
+ * reject a torn slot instead of locking; a lost write only costs a re-search.
+ */
+final class TranspositionTable {
+
+    private static final int maxBits = 29;
+
+    private final long entries[];
+    private final int shift;
+
+    /**
+     * @param bits log2 of the number of slots, 1 to 29
+     */
+    TranspositionTable(int bits) {
+        if (bits < 1 || bits > maxBits) {
+            throw new IllegalArgumentException("Table bits out of range: " + bits);
+        }
+        entries = new long[2 << bits];
+        shift = 64 - bits;
+    }
+
+    /**
+     * @return the value stored for {@code board} at {@code depth} or deeper, or NaN if there is none
+     */
+    float get(long board, int depth) {
+        int slot = slot(board);
+        long data = entries[slot + 1];
+        if ((entries[slot] ^ data) != board || (int) (data >>> 32) < depth) {
+            return Float.NaN;
+        }
+        return Float.intBitsToFloat((int) data);
+    }
+
+    void put(long board, int depth, float value) {
+        int slot = slot(board);
+        long data = (long) depth << 32 | Float.floatToRawIntBits(value) & 0xFFFFFFFFL;
+        entries[slot + 1] = data;
+        entries[slot] = board ^ data;
+    }
+
+    /**
+     * Takes the top {@code bits} of a Fibonacci hash, so every size uses its best-mixed bits.
+     */
+    private int slot(long board) {
+        return (int) ((board * 0x9E3779B97F4A7C15L) >>> shift) << 1;
+    }
+}
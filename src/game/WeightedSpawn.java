@@ -0,0 +1,90 @@
+package game;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Weighted tile values on a uniformly chosen empty cell, sampled in O(1) from one 64-bit draw.
+ * The high 32 bits pick the cell; the low 32 bits pick a column of Vose's alias table, and the
+ * remainder of that multiplication decides between the column's value and its alias.
+ */
+final class WeightedSpawn implements SpawnPolicy {
+
+    private final int exponents[];
+    private final int alias[];
+    private final long threshold[];
+    private final int maxExponent;
+
+    WeightedSpawn(int exponents[], double weights[]) {
+        int n = exponents.length;
+        if (n == 0 || weights.length != n) {
+            throw new IllegalArgumentException("Need one weight per exponent");
+        }
+        double total = 0;
+        int max = 0;
+        for (int k = 0; k < n; k++) {
+            if (exponents[k] < 1 || exponents[k] > exponentLimit) {
+                throw new IllegalArgumentException("Spawn exponent out of range: " + exponents[k]);
+            }
+            if (!(weights[k] >= 0)) {
+                throw new IllegalArgumentException("Negative weight: " + weights[k]);
+            }
+            total += weights[k];
+            if (weights[k] > 0) {
+                max = Math.max(max, exponents[k]);
+            }
+        }
+        if (!(total > 0)) {
+            throw new IllegalArgumentException("Weights sum to zero");
+        }
+        maxExponent = max;
+        this.exponents = exponents.clone();
+        alias = new int[n];
+        threshold = new long[n];
+        double scaled[] = new double[n];
+        int small[] = new int[n];
+        int large[] = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int k = 0; k < n; k++) {
+            scaled[k] = weights[k] * n / total;
+            if (scaled[k] < 1) {
+                small[smallCount++] = k;
+            } else {
+                large[largeCount++] = k;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            threshold[less] = (long) (scaled[less] * (1L << 32));
+            alias[less] = more;
+            scaled[more] -= 1 - scaled[less];
+            if (scaled[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        while (largeCount > 0) {
+            threshold[large[--largeCount]] = 1L << 32;
+        }
+        while (smallCount > 0) {
+            threshold[small[--smallCount]] = 1L << 32;
+        }
+    }
+
+    @Override
+    public int spawn(Engine game, int empty, RandomGenerator random) {
+        long draw = random.nextLong();
+        int position = (int) (((draw >>> 32) * empty) >>> 32);
+        long column = (draw & 0xFFFFFFFFL) * exponents.length;
+        int k = (int) (column >>> 32);
+        int exponent = (column & 0xFFFFFFFFL) < threshold[k] ? exponents[k] : exponents[alias[k]];
+        return SpawnPolicy.spawn(position, exponent);
+    }
+
+    @Override
+    public int maxExponent() {
+        return maxExponent;
+    }
+}
@@ -0,0 +1,66 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the bit tricks of {@link BoardSymmetry} against sliding on random 3×3 and 4×4 boards:
+ * the transposition table keys and the symmetric tablebase rely on them.
+ */
+class BoardSymmetryTest {
+
+    private static final int boards = 20000;
+
+    @Test
+    void threeByThree() {
+        check(3);
+    }
+
+    @Test
+    void fourByFour() {
+        check(4);
+    }
+
+    private static void check(int size) {
+        SplittableRandom random = new SplittableRandom(size);
+        for (int n = 0; n < boards; n++) {
+            long board = randomBoard(random, size);
+            long canonical = BoardSymmetry.canonical(board, size);
+            for (int symmetry = 0; symmetry < BoardSymmetry.count; symmetry++) {
+                long image = BoardSymmetry.apply(board, symmetry, size);
+                String where = "board " + Long.toHexString(board) + ", symmetry " + symmetry;
+                assertEquals(board, BoardSymmetry.apply(image, BoardSymmetry.inverse(symmetry), size), where);
+                assertEquals(canonical, BoardSymmetry.canonical(image, size), where);
+                for (int direction = Game.MOVE_UP; direction <= Game.MOVE_RIGHT; direction++) {
+                    assertEquals(BoardSymmetry.apply(move(board, direction, size), symmetry, size),
+                            move(image, BoardSymmetry.direction(symmetry, direction), size),
+                            where + ", direction " + direction);
+                }
+            }
+            int symmetry = BoardSymmetry.canonicalSymmetry(board, size);
+            assertEquals(canonical, BoardSymmetry.apply(board, symmetry, size));
+        }
+    }
+
+    /**
+     * @return a board with tiles only in its top-left {@code size}×{@code size} cells, a third of them empty
+     */
+    private static long randomBoard(SplittableRandom random, int size) {
+        long board = 0L;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                long exponent = random.nextInt(3) == 0 ? 0 : 1 + random.nextInt(size == 4 ? 14 : 8);
+                board |= exponent << BitboardGame.shift(i, j);
+            }
+        }
+        return board;
+    }
+
+    private static long move(long board, int direction, int size) {
+        return size == BitboardGame.rows ? BitboardGame.move(board, direction)
+                : BitboardGame.move(board, direction, size, size);
+    }
+}
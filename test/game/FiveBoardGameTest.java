@@ -0,0 +1,104 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Plays random games through {@link FiveBoardGame} and {@link Game} side by side; seeded alike,
+ * both must spawn, slide and score identically. Boards with tiles of 2^16 and up cover the rows
+ * that merge lane by lane instead of through the tables.
+ */
+class FiveBoardGameTest {
+
+    private static final int games = 200;
+
+    @Test
+    void matchesGame() {
+        int checked = 0;
+        for (int id = 0; id < GameMode.count(); id++) {
+            GameMode mode = GameMode.get(id);
+            if (mode.rows != FiveBoardGame.rows || mode.colomns != FiveBoardGame.colomns) {
+                continue;
+            }
+            for (int seed = 0; seed < games; seed++) {
+                play(mode, seed);
+            }
+            checked++;
+        }
+        assertTrue(checked > 0, "No 5x5 mode");
+    }
+
+    @Test
+    void matchesGameWithLargeTiles() throws IOException {
+        GameMode mode = GameMode.get(Game.FIVE_FIVE);
+        Random random = new Random(2048);
+        for (int n = 0; n < games; n++) {
+            ByteBuffer state = largeTiles(mode, random);
+            for (int direction = Game.MOVE_UP; direction <= Game.MOVE_RIGHT; direction++) {
+                Game game = new Game(state.duplicate(), new SplittableRandom(n));
+                FiveBoardGame five = new FiveBoardGame(game, new SplittableRandom(n));
+                int result = five.move(direction);
+                assertEquals(game.move(direction), result, "result of board " + n + ", direction " + direction);
+                assertBoardsEqual(mode, n, direction, five, game);
+            }
+        }
+    }
+
+    /**
+     * A state in the {@link Game#writeState(ByteBuffer)} layout with empty cells, small tiles and
+     * tiles from 2^16 to 2^30, plus at most one 2^31: {@link FiveBoardGame} cannot merge two of those.
+     */
+    private static ByteBuffer largeTiles(GameMode mode, Random random) {
+        ByteBuffer state = ByteBuffer.allocate(1 + mode.rows * mode.colomns + 8 + 1);
+        state.put((byte) mode.id);
+        boolean top = false;
+        for (int cell = 0; cell < mode.rows * mode.colomns; cell++) {
+            int exponent;
+            switch (random.nextInt(4)) {
+                case 0:
+                    exponent = 0;
+                    break;
+                case 1:
+                    exponent = 1 + random.nextInt(15);
+                    break;
+                default:
+                    exponent = 16 + random.nextInt(top ? 15 : 16);
+                    top |= exponent == FiveBoardGame.maxExponent;
+            }
+            state.put((byte) exponent);
+        }
+        state.putLong(random.nextInt(1 << 20));
+        state.put((byte) 1);
+        return state.flip();
+    }
+
+    private static void play(GameMode mode, int seed) {
+        FiveBoardGame five = new FiveBoardGame(mode, new SplittableRandom(seed));
+        Game game = new Game(mode, new SplittableRandom(seed), 2);
+        Random moves = new Random(seed);
+        assertBoardsEqual(mode, seed, 0, five, game);
+        for (int n = 1, result = 0; result != Game.GAME_OVER; n++) {
+            int direction = Game.MOVE_UP + moves.nextInt(4);
+            result = five.move(direction);
+            assertEquals(game.move(direction), result, () -> "result of mode " + mode.id + ", seed " + seed);
+            assertBoardsEqual(mode, seed, n, five, game);
+        }
+    }
+
+    private static void assertBoardsEqual(GameMode mode, int seed, int n, FiveBoardGame five, Game game) {
+        String where = "mode " + mode.id + ", seed " + seed + ", move " + n;
+        for (int i = 0; i < game.rows; i++) {
+            for (int j = 0; j < game.colomns; j++) {
+                assertEquals(game.getTile(i, j), five.getTile(i, j), where + ", tile " + i + "," + j);
+            }
+        }
+        assertEquals(game.getScore(), five.getScore(), where + ", score");
+    }
+}
@@ -0,0 +1,121 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Ring wraparound and redo truncation of {@link MoveHistory}, through both the packed bitboard
+ * stack and whole recorded games.
+ */
+class MoveHistoryTest {
+
+    @Test
+    void forgetsOldestPastCapacity() {
+        MoveHistory history = new MoveHistory(4);
+        for (int k = 1; k <= 10; k++) {
+            history.push(0x1000L + k, k);
+        }
+        assertEquals(4, history.size());
+        for (int k = 10; k > 7; k--) {
+            assertEquals(0x1000L + k, history.board());
+            assertEquals(k, history.score());
+            assertTrue(history.back());
+        }
+        assertEquals(0x1007L, history.board());
+        assertFalse(history.back());
+        assertEquals(0x1007L, history.board());
+    }
+
+    @Test
+    void pushAfterBackDropsRedo() {
+        MoveHistory history = new MoveHistory(8);
+        for (int k = 1; k <= 5; k++) {
+            history.push(k, k);
+        }
+        assertTrue(history.back());
+        assertTrue(history.back());
+        assertTrue(history.forward());
+        assertEquals(4L, history.board());
+        history.push(40L, 40);
+        assertFalse(history.forward());
+        assertEquals(5, history.size());
+        long expected[] = {40L, 4L, 3L, 2L, 1L};
+        for (long board : expected) {
+            assertEquals(board, history.board());
+            history.back();
+        }
+    }
+
+    @Test
+    void wrapsAroundAfterTruncation() {
+        MoveHistory history = new MoveHistory(3);
+        for (int k = 1; k <= 4; k++) {
+            history.push(k, k);
+        }
+        assertTrue(history.back());
+        history.push(30L, 30);
+        history.push(50L, 50);
+        assertEquals(3, history.size());
+        assertEquals(50L, history.board());
+        assertTrue(history.back());
+        assertEquals(30L, history.board());
+        assertTrue(history.back());
+        assertEquals(3L, history.board());
+        assertFalse(history.back());
+        assertTrue(history.forward());
+        assertTrue(history.forward());
+        assertFalse(history.forward());
+    }
+
+    @Test
+    void restoresRecordedGames() {
+        for (int id = 0; id < GameMode.count(); id++) {
+            GameMode mode = GameMode.get(id);
+            Game game = new Game(mode, new SplittableRandom(id), 2);
+            MoveHistory history = new MoveHistory(16, mode);
+            history.record(game);
+            Game copies[] = new Game[40];
+            SplittableRandom moves = new SplittableRandom(id);
+            int n = 0;
+            while (n < copies.length) {
+                int result = game.move(Game.MOVE_UP + moves.nextInt(4));
+                if (result == Game.GAME_OVER) {
+                    break;
+                }
+                if (result != Game.NO_MOVEMENT) {
+                    history.record(game);
+                    copies[n++] = copy(game);
+                }
+            }
+            for (int k = n - 1; k >= Math.max(0, n - 16); k--) {
+                game.restore(history);
+                assertEquals(-1, game.getLastSpawnCell());
+                assertSameBoard(copies[k], game);
+                history.back();
+            }
+        }
+    }
+
+    private static Game copy(Game game) {
+        Game copy = new Game(game.getMode(), new SplittableRandom(0), 0);
+        MoveHistory one = new MoveHistory(1, game.getMode());
+        one.record(game);
+        copy.restore(one);
+        return copy;
+    }
+
+    private static void assertSameBoard(Game expected, Game actual) {
+        for (int i = 0; i < expected.rows; i++) {
+            for (int j = 0; j < expected.colomns; j++) {
+                assertEquals(expected.getTile(i, j), actual.getTile(i, j));
+            }
+        }
+        assertEquals(expected.getScore(), actual.getScore());
+        assertEquals(expected.getHaveWon(), actual.getHaveWon());
+    }
+}